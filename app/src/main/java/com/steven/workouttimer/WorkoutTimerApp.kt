@@ -6,6 +6,7 @@ import android.app.NotificationManager
 import android.os.Build
 import com.steven.workouttimer.data.db.AppDatabase
 import com.steven.workouttimer.data.preferences.ThemePreferences
+import com.steven.workouttimer.data.preferences.TimerPreferences
 import com.steven.workouttimer.data.repository.TimerRepository
 
 class WorkoutTimerApp : Application() {
@@ -52,4 +53,8 @@ class AppContainer(private val application: Application) {
     val themePreferences: ThemePreferences by lazy {
         ThemePreferences(application)
     }
+
+    val timerPreferences: TimerPreferences by lazy {
+        TimerPreferences(application)
+    }
 }
@@ -6,23 +6,100 @@ import android.media.AudioFormat
 import android.media.AudioManager
 import android.media.AudioTrack
 import android.media.ToneGenerator
+import android.os.Process
+import android.os.SystemClock
 import android.speech.tts.TextToSpeech
+import com.steven.workouttimer.engine.CueTimeline
+import com.steven.workouttimer.engine.LatencyHistogram
+import com.steven.workouttimer.engine.TimerMode
 import java.util.Locale
-import kotlin.math.sin
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicReferenceArray
 
 class AudioNotificationManager(private val context: Context) {
 
     private var textToSpeech: TextToSpeech? = null
+    @Volatile
     private var ttsReady = false
     private var toneGenerator: ToneGenerator? = null
+    private val toneCache = ToneCache()
+
+    // Countdown tones by [maxCountdownSeconds][secondsRemaining], filled by prepareCountdown
+    private val countdownSets = AtomicReferenceArray<Array<ShortArray>>(MAX_PREPARED_COUNTDOWN + 1)
+
+    // Beeps and recorded phrases go through one mixed stream while a session runs, and
+    // a track of their own only if the stream could not be opened
+    private val mixer = ToneMixer()
+    private val stream = CueAudioStream(mixer, SAMPLE_RATE)
+
+    /** Time from request to sound for beeps played through the streaming mixer. */
+    val streamOnsetLatency: LatencyHistogram
+        get() = mixer.onsetLatency
+
+    /** Time from request to play() returning for beeps played on a track of their own. */
+    val staticOnsetLatency = LatencyHistogram()
+
+    // Fallback tracks that may still be playing, with when they finish; audio thread only
+    private val fallbackTracks = ArrayDeque<Pair<AudioTrack, Long>>()
+
+    private val dropOldestCue = CountingDiscardOldestPolicy()
+
+    // Speech, tone generator and fallback tracks are driven from this one thread, so
+    // the engine never blocks on them and a burst of cues cannot spawn threads. When
+    // cues pile up behind a slow one, the stalest queued cue is dropped for the newest.
+    private val audioExecutor = ThreadPoolExecutor(
+        1, 1, 0L, TimeUnit.MILLISECONDS,
+        ArrayBlockingQueue(MAX_QUEUED_CUES),
+        { task ->
+            Thread({
+                Process.setThreadPriority(Process.THREAD_PRIORITY_URGENT_AUDIO)
+                task.run()
+            }, AUDIO_THREAD_NAME)
+        },
+        dropOldestCue
+    )
+
+    /** Cues dropped from the audio queue because newer ones arrived behind a slow cue. */
+    val droppedCues: Long
+        get() = dropOldestCue.droppedCount
+
+    // Fixed phrases play as recorded PCM through the mixer; the engine speaks the rest
+    private val speechCache = SpeechCache(context, SPOKEN_PHRASES, Locale.US, SPEECH_RATE, SAMPLE_RATE)
 
     companion object {
-        private const val SAMPLE_RATE = 44100
+        private const val SAMPLE_RATE = ToneSynth.SAMPLE_RATE
+
+        /** Longest countdown whose tones are kept ready; the editor allows up to 10 s. */
+        private const val MAX_PREPARED_COUNTDOWN = 10
+
+        private const val AUDIO_THREAD_NAME = "cue-audio-control"
+
+        /** Cues are a second apart, so more than this waiting means they are stale. */
+        private const val MAX_QUEUED_CUES = 4
+
+        private const val SPEECH_RATE = 1.2f
+
+        /** Everything a session says: countdown numbers, phase names and completion. */
+        private val SPOKEN_PHRASES: List<String> = buildList {
+            for (number in 1..MAX_PREPARED_COUNTDOWN) {
+                add(number.toString())
+            }
+            for (kind in listOf(CueTimeline.SEGMENT_WORK, CueTimeline.SEGMENT_HOLD, CueTimeline.SEGMENT_REST)) {
+                add(announcement(kind))
+            }
+            TimerMode.entries.mapTo(this) { it.completionMessage }
+        }.distinct()
+
+        private fun announcement(segmentKind: Int): String =
+            CueTimeline.segmentLabel(segmentKind).lowercase().replaceFirstChar { it.uppercase() }
     }
 
     init {
         initializeTTS()
         initializeToneGenerator()
+        speechCache.load()
     }
 
     private fun initializeTTS() {
@@ -33,7 +110,7 @@ class AudioNotificationManager(private val context: Context) {
                     ttsReady = result != TextToSpeech.LANG_MISSING_DATA &&
                             result != TextToSpeech.LANG_NOT_SUPPORTED
 
-                    tts.setSpeechRate(1.2f)
+                    tts.setSpeechRate(SPEECH_RATE)
                     tts.setPitch(1.0f)
                 }
             }
@@ -51,50 +128,160 @@ class AudioNotificationManager(private val context: Context) {
         }
     }
 
+    /**
+     * Renders the tones of a countdown from [maxCountdownSeconds] ahead of time, so
+     * [playCountdownBeep] replays them from memory instead of synthesizing each beep.
+     */
+    fun prepareCountdown(maxCountdownSeconds: Int) {
+        if (maxCountdownSeconds !in 1..MAX_PREPARED_COUNTDOWN) return
+        if (countdownSets[maxCountdownSeconds] != null) return
+        countdownSets[maxCountdownSeconds] = Array(maxCountdownSeconds + 1) { secondsRemaining ->
+            countdownTone(maxOf(secondsRemaining, 1), maxCountdownSeconds)
+        }
+    }
+
     /**
      * Plays a countdown beep with rising pitch based on seconds remaining.
      * The last beep (1 second) is longer (2 seconds duration).
      */
     fun playCountdownBeep(secondsRemaining: Int, maxCountdownSeconds: Int) {
-        Thread {
-            try {
-                // Calculate pitch - rises as we get closer to 0
-                // Start at 600Hz, end at 1200Hz for the final beep
-                val pitchProgress = 1.0 - (secondsRemaining.toDouble() / maxCountdownSeconds)
-                val frequency = 600.0 + (pitchProgress * 600.0) // 600Hz to 1200Hz
+        playPcm(preparedTone(secondsRemaining, maxCountdownSeconds))
+    }
+
+    /**
+     * Checks that the recorded phrases match the current speech engine and voice, and
+     * records any that are missing, in the background. Call when a session with audio
+     * starts.
+     */
+    fun prepareSpeech() {
+        speechCache.refresh()
+    }
+
+    /**
+     * Lines up the countdown beep for [secondsRemaining] to start exactly at [dueMs] on
+     * the [SystemClock.elapsedRealtime] clock, to the sample. [tag] identifies the
+     * session for [cancelScheduled].
+     *
+     * @return false if the stream is not open, in which case play the beep when due
+     */
+    fun scheduleCountdownBeep(tag: Long, secondsRemaining: Int, maxCountdownSeconds: Int, dueMs: Long): Boolean {
+        if (!stream.isOpen) return false
+        scheduleAt(preparedTone(secondsRemaining, maxCountdownSeconds), tag, dueMs)
+        return true
+    }
+
+    /**
+     * Like [scheduleCountdownBeep] for a spoken countdown [number].
+     *
+     * @return false if the stream is not open or the number has not been recorded yet
+     */
+    fun scheduleSpokenNumber(tag: Long, number: Int, dueMs: Long): Boolean {
+        if (!stream.isOpen) return false
+        val samples = speechCache.get(number.toString()) ?: return false
+        scheduleAt(samples, tag, dueMs)
+        return true
+    }
 
-                // Duration: 200ms for normal beeps, 1000ms for the last beep
-                val durationMs = if (secondsRemaining == 1) 1000 else 200
+    private fun scheduleAt(samples: ShortArray, tag: Long, dueMs: Long) {
+        // The output clock runs on System.nanoTime, which stops in deep sleep
+        val atNanos = System.nanoTime() + (dueMs * 1_000_000 - SystemClock.elapsedRealtimeNanos())
+        mixer.schedule(samples, atNanos, tag)
+    }
 
-                // Volume: louder as we get closer (0.7 to 1.0)
-                val volume = 0.7 + (pitchProgress * 0.3)
+    /** Withdraws the beeps scheduled with [tag] that have not started yet. */
+    fun cancelScheduled(tag: Long) {
+        mixer.cancel(tag)
+    }
 
-                playTone(frequency, durationMs, volume)
+    /**
+     * Test mode for scheduled beeps: measures how far the output clock estimate drifts
+     * between placing each beep and a later clock reading, see [beepTimingSummary].
+     */
+    var verifyBeepTiming: Boolean
+        get() = mixer.verifyTiming
+        set(value) {
+            mixer.verifyTiming = value
+        }
+
+    /** Clock drift in frames measured while [verifyBeepTiming] is on, plus beeps that started late. */
+    fun beepTimingSummary(): String = "${mixer.timingSummary()} late=${mixer.lateVoices}"
+
+    /**
+     * Opens the stream cues are mixed into; call while a session with audio is
+     * running, so cues do not wait for a track to start.
+     */
+    fun openStream() {
+        stream.open()
+    }
+
+    /**
+     * Closes the stream once no session needs it, so it stops feeding silence. Tones
+     * still playing, such as the completion phrase, finish first.
+     */
+    fun closeStream() {
+        stream.close()
+    }
+
+    /** One line summary of the tone cache, for the service's dump. */
+    fun toneCacheSummary(): String = toneCache.summary()
+
+    /** One line summary of the recorded phrases, for the service's dump. */
+    fun speechCacheSummary(): String =
+        "phrases=${speechCache.phraseCount}/${SPOKEN_PHRASES.size} bytes=${speechCache.sizeBytes}"
+
+    /** Tones the mixer dropped because too many were already playing. */
+    val droppedTones: Long
+        get() = mixer.droppedVoices
+
+    fun resetMeters() {
+        streamOnsetLatency.reset()
+        staticOnsetLatency.reset()
+        dropOldestCue.reset()
+        mixer.resetTiming()
+    }
+
+    private fun onAudioThread(action: () -> Unit) {
+        audioExecutor.execute {
+            try {
+                action()
             } catch (e: Exception) {
                 e.printStackTrace()
             }
-        }.start()
+        }
     }
 
-    private fun playTone(frequency: Double, durationMs: Int, volume: Double) {
-        val numSamples = (SAMPLE_RATE * durationMs / 1000.0).toInt()
-        val samples = ShortArray(numSamples)
+    private fun preparedTone(secondsRemaining: Int, maxCountdownSeconds: Int): ShortArray {
+        val prepared = if (maxCountdownSeconds in 1..MAX_PREPARED_COUNTDOWN) countdownSets[maxCountdownSeconds] else null
+        return prepared?.getOrNull(secondsRemaining) ?: countdownTone(secondsRemaining, maxCountdownSeconds)
+    }
 
-        // Generate sine wave
-        for (i in 0 until numSamples) {
-            val angle = 2.0 * Math.PI * i * frequency / SAMPLE_RATE
-            var sample = sin(angle)
+    private fun countdownTone(secondsRemaining: Int, maxCountdownSeconds: Int): ShortArray {
+        // Calculate pitch - rises as we get closer to 0
+        // Start at 600Hz, end at 1200Hz for the final beep
+        val pitchProgress = 1.0 - (secondsRemaining.toDouble() / maxCountdownSeconds)
+        val frequency = 600.0 + (pitchProgress * 600.0) // 600Hz to 1200Hz
 
-            // Apply fade in/out to avoid clicks (10ms fade)
-            val fadeSamples = (SAMPLE_RATE * 0.01).toInt()
-            if (i < fadeSamples) {
-                sample *= i.toDouble() / fadeSamples
-            } else if (i > numSamples - fadeSamples) {
-                sample *= (numSamples - i).toDouble() / fadeSamples
-            }
+        // Duration: 200ms for normal beeps, 1000ms for the last beep
+        val durationMs = if (secondsRemaining == 1) 1000 else 200
 
-            samples[i] = (sample * volume * Short.MAX_VALUE).toInt().toShort()
+        // Volume: louder as we get closer (0.7 to 1.0)
+        val volume = 0.7 + (pitchProgress * 0.3)
+
+        return toneCache.get(frequency, durationMs, volume)
+    }
+
+    /** Plays [samples] through the mixer, or on a track of their own without the stream. */
+    private fun playPcm(samples: ShortArray) {
+        if (stream.isOpen) {
+            mixer.play(samples)
+            return
         }
+        val requestedAt = System.nanoTime()
+        onAudioThread { playTone(samples, requestedAt) }
+    }
+
+    private fun playTone(samples: ShortArray, requestedAtNanos: Long) {
+        releaseFallbackTracks(System.nanoTime())
 
         val audioAttributes = AudioAttributes.Builder()
             .setUsage(AudioAttributes.USAGE_NOTIFICATION)
@@ -122,31 +309,40 @@ class AudioNotificationManager(private val context: Context) {
 
         audioTrack.write(samples, 0, samples.size)
         audioTrack.play()
+        staticOnsetLatency.record((System.nanoTime() - requestedAtNanos) / 1_000_000)
 
-        // Wait for playback to complete
-        Thread.sleep(durationMs.toLong() + 50)
-        audioTrack.stop()
-        audioTrack.release()
+        // Released by a later cue once done, rather than holding the audio thread
+        val playbackNanos = (samples.size * 1000L / SAMPLE_RATE + 50) * 1_000_000
+        fallbackTracks.addLast(audioTrack to System.nanoTime() + playbackNanos)
+    }
+
+    private fun releaseFallbackTracks(nowNanos: Long) {
+        while (fallbackTracks.isNotEmpty() && fallbackTracks.first().second <= nowNanos) {
+            val track = fallbackTracks.removeFirst().first
+            track.stop()
+            track.release()
+        }
     }
 
     fun playBeep() {
-        try {
+        onAudioThread {
             toneGenerator?.startTone(ToneGenerator.TONE_PROP_BEEP, 200)
-        } catch (e: Exception) {
-            e.printStackTrace()
         }
     }
 
     fun playDoubleBeep() {
-        try {
+        onAudioThread {
             toneGenerator?.startTone(ToneGenerator.TONE_PROP_BEEP2, 300)
-        } catch (e: Exception) {
-            e.printStackTrace()
         }
     }
 
     fun speakNumber(number: Int) {
-        if (ttsReady) {
+        speechCache.get(number.toString())?.let {
+            playPcm(it)
+            return
+        }
+        if (!ttsReady) return
+        onAudioThread {
             textToSpeech?.speak(
                 number.toString(),
                 TextToSpeech.QUEUE_FLUSH,
@@ -156,8 +352,18 @@ class AudioNotificationManager(private val context: Context) {
         }
     }
 
+    /** Announces the start of a segment of [segmentKind], e.g. "Rest". */
+    fun speakSegment(segmentKind: Int) {
+        speakText(announcement(segmentKind))
+    }
+
     fun speakText(text: String) {
-        if (ttsReady) {
+        speechCache.get(text)?.let {
+            playPcm(it)
+            return
+        }
+        if (!ttsReady) return
+        onAudioThread {
             textToSpeech?.speak(
                 text,
                 TextToSpeech.QUEUE_FLUSH,
@@ -168,10 +374,19 @@ class AudioNotificationManager(private val context: Context) {
     }
 
     fun release() {
-        textToSpeech?.stop()
-        textToSpeech?.shutdown()
-        textToSpeech = null
-        toneGenerator?.release()
-        toneGenerator = null
+        stream.close()
+        speechCache.release()
+        // Runs after any cue still queued, then lets the audio thread finish
+        onAudioThread {
+            releaseFallbackTracks(Long.MAX_VALUE)
+            textToSpeech?.stop()
+            textToSpeech?.shutdown()
+            textToSpeech = null
+            toneGenerator?.release()
+            toneGenerator = null
+        }
+        audioExecutor.shutdown()
+        for (i in 0 until countdownSets.length()) countdownSets[i] = null
+        toneCache.clear()
     }
 }
@@ -0,0 +1,27 @@
+package com.steven.workouttimer.audio
+
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * [ThreadPoolExecutor.DiscardOldestPolicy] that counts the tasks it drops: when the
+ * queue is full the oldest waiting task makes room for the new one.
+ */
+internal class CountingDiscardOldestPolicy : ThreadPoolExecutor.DiscardOldestPolicy() {
+    private val dropped = AtomicLong()
+
+    /** Tasks dropped since creation or the last [reset]. */
+    val droppedCount: Long
+        get() = dropped.get()
+
+    override fun rejectedExecution(task: Runnable, executor: ThreadPoolExecutor) {
+        if (!executor.isShutdown) {
+            dropped.incrementAndGet()
+        }
+        super.rejectedExecution(task, executor)
+    }
+
+    fun reset() {
+        dropped.set(0L)
+    }
+}
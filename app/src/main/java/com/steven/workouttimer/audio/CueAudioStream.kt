@@ -0,0 +1,173 @@
+package com.steven.workouttimer.audio
+
+import android.media.AudioAttributes
+import android.media.AudioFormat
+import android.media.AudioTimestamp
+import android.media.AudioTrack
+import android.os.Process
+
+/**
+ * One long-lived streaming [AudioTrack] fed by its own thread with [mixer]'s output:
+ * silence between cues, and every queued tone summed in from the next block on or
+ * at the exact frame it was scheduled for.
+ *
+ * The thread keeps the mixer's output clock in step with [AudioTrack.getTimestamp],
+ * which says when a given frame reached the speaker. Until the track reports one, the
+ * clock is estimated from the frames written and the track's buffer.
+ *
+ * Keeping the track open while a session runs avoids building, starting and releasing
+ * a track per beep, which costs native resources and delays each cue's onset. The
+ * price is an audio path kept awake by silence, so in battery saver mode the service
+ * closes the stream through long gaps between cues and reopens it shortly before the next.
+ *
+ * [close] lets the stream finish rather than cutting it off: tones already queued or
+ * playing, such as the phrase announcing the end of a workout, play to the end before
+ * the track stops, and [open] meanwhile simply keeps it going.
+ */
+class CueAudioStream(private val mixer: ToneMixer, private val sampleRate: Int) {
+
+    private val lock = Any()
+
+    @Volatile
+    private var closing = false
+
+    // Guarded by lock; the feeding thread clears it once it stops using the mixer
+    private var thread: Thread? = null
+
+    /** Whether the stream is up and taking tones through [mixer]. */
+    @Volatile
+    var isOpen = false
+        private set
+
+    fun open() {
+        synchronized(lock) {
+            if (thread != null) {
+                closing = false
+                return
+            }
+            val track = try {
+                buildTrack()
+            } catch (e: Exception) {
+                e.printStackTrace()
+                return
+            }
+            closing = false
+            isOpen = true
+            thread = Thread({ feed(track) }, THREAD_NAME).apply { start() }
+        }
+    }
+
+    /** Stops the stream once what it is playing has finished; returns at once. */
+    fun close() {
+        closing = true
+    }
+
+    private fun buildTrack(): AudioTrack {
+        val minBufferSize = AudioTrack.getMinBufferSize(
+            sampleRate,
+            AudioFormat.CHANNEL_OUT_MONO,
+            AudioFormat.ENCODING_PCM_16BIT
+        )
+        return AudioTrack.Builder()
+            .setAudioAttributes(
+                AudioAttributes.Builder()
+                    .setUsage(AudioAttributes.USAGE_NOTIFICATION)
+                    .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+                    .build()
+            )
+            .setAudioFormat(
+                AudioFormat.Builder()
+                    .setSampleRate(sampleRate)
+                    .setEncoding(AudioFormat.ENCODING_PCM_16BIT)
+                    .setChannelMask(AudioFormat.CHANNEL_OUT_MONO)
+                    .build()
+            )
+            .setBufferSizeInBytes(maxOf(minBufferSize, BLOCK_FRAMES * 2 * 2))
+            .setTransferMode(AudioTrack.MODE_STREAM)
+            .setPerformanceMode(AudioTrack.PERFORMANCE_MODE_LOW_LATENCY)
+            .build()
+    }
+
+    private fun feed(track: AudioTrack) {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_URGENT_AUDIO)
+        val block = ShortArray(BLOCK_FRAMES)
+        val timestamp = AudioTimestamp()
+        var framesWritten = 0L
+        var hasTimestamp = false
+        var blocksSinceTimestamp = 0
+        var drainedFrames = 0L
+        try {
+            // The track's frame position starts from 0, and so must the mixer's
+            mixer.startStream(System.nanoTime())
+            track.play()
+            while (true) {
+                if (!hasTimestamp || mixer.verifyTiming || blocksSinceTimestamp >= TIMESTAMP_INTERVAL_BLOCKS) {
+                    if (track.getTimestamp(timestamp)) {
+                        mixer.setOutputClock(timestamp.framePosition, timestamp.nanoTime)
+                        hasTimestamp = true
+                        blocksSinceTimestamp = 0
+                    } else if (!hasTimestamp) {
+                        // A blocking write returns once about a buffer is still queued
+                        mixer.setOutputClock(framesWritten - track.bufferSizeInFrames, System.nanoTime())
+                    }
+                }
+                blocksSinceTimestamp++
+                // Read before mixing, so a tone queued just before close() is in this block
+                val closeRequested = closing
+                val playing = mixer.mix(block, 0, block.size)
+                val written = track.write(block, 0, block.size)
+                if (written < 0) break
+                framesWritten += written
+                if (!closeRequested) {
+                    drainedFrames = 0L
+                    continue
+                }
+                drainedFrames += written
+                if ((playing == 0 || drainedFrames >= sampleRate * MAX_DRAIN_SECONDS) && finish(force = false)) {
+                    // Silence behind the last tone, so it has played out before the track stops
+                    block.fill(0)
+                    var tail = track.bufferSizeInFrames
+                    while (tail > 0 && track.write(block, 0, block.size) > 0) tail -= block.size
+                    break
+                }
+            }
+        } catch (e: Exception) {
+            e.printStackTrace()
+        } finally {
+            finish(force = true)
+            track.stop()
+            track.release()
+        }
+    }
+
+    /**
+     * Hands the mixer back, unless [open] was called again since [close] and [force]
+     * is false; the stream then carries on.
+     *
+     * @return whether the stream is finished
+     */
+    private fun finish(force: Boolean): Boolean {
+        synchronized(lock) {
+            if (!force && !closing) return false
+            if (thread === Thread.currentThread()) {
+                isOpen = false
+                mixer.clear()
+                thread = null
+            }
+            return true
+        }
+    }
+
+    companion object {
+        private const val THREAD_NAME = "cue-audio"
+
+        /** About 6 ms at 44.1 kHz: how late a tone played right away can start. */
+        private const val BLOCK_FRAMES = 256
+
+        /** About every 370 ms, often enough to follow drift between the clocks. */
+        private const val TIMESTAMP_INTERVAL_BLOCKS = 64
+
+        /** Longest a closed stream keeps playing what was queued, e.g. a spoken phrase. */
+        private const val MAX_DRAIN_SECONDS = 10
+    }
+}
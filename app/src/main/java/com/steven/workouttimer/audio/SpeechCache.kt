@@ -0,0 +1,192 @@
+package com.steven.workouttimer.audio
+
+import android.content.Context
+import android.os.Bundle
+import android.speech.tts.TextToSpeech
+import android.speech.tts.UtteranceProgressListener
+import java.io.File
+import java.util.Locale
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+
+/**
+ * The fixed [phrases] the app speaks, rendered once with [TextToSpeech.synthesizeToFile]
+ * into WAV files under the cache directory and held in memory as PCM, so speaking one
+ * is as quick as playing a tone and works before the speech engine is up.
+ *
+ * Files belong to one combination of engine, voice, locale and speech rate. [refresh]
+ * checks that combination with a connection of its own, so phrases spoken meanwhile
+ * cannot flush the rendering queue; if it changed, the old files are deleted and every
+ * phrase is rendered again, otherwise only missing ones are. All of this runs on one
+ * background thread. Until a phrase is ready, [get] returns null.
+ */
+class SpeechCache(
+    private val context: Context,
+    private val phrases: List<String>,
+    private val locale: Locale,
+    private val speechRate: Float,
+    private val sampleRate: Int
+) {
+    private val root = File(context.cacheDir, CACHE_DIR)
+    private val worker: ExecutorService = Executors.newSingleThreadExecutor { task ->
+        Thread(task, WORKER_THREAD_NAME)
+    }
+
+    @Volatile
+    private var clips: Map<String, ShortArray> = emptyMap()
+
+    // Worker thread only: what the files on disk were rendered with, and the rendering
+    private var key: String? = null
+    private var synth: TextToSpeech? = null
+    private val pending = HashSet<String>()
+
+    val phraseCount: Int
+        get() = clips.size
+
+    /** Bytes of PCM held in memory. */
+    val sizeBytes: Long
+        get() = clips.values.sumOf { it.size * 2L }
+
+    /** The rendered samples of [phrase], or null if it is not ready. */
+    fun get(phrase: String): ShortArray? = clips[phrase]
+
+    /** Loads the phrases rendered by an earlier run. */
+    fun load() {
+        post { loadSaved() }
+    }
+
+    /** Checks the engine and voice, and renders whatever is missing or outdated. */
+    fun refresh() {
+        post {
+            if (synth != null) return@post
+            synth = TextToSpeech(context) { status ->
+                post { onSynthReady(status) }
+            }
+        }
+    }
+
+    fun release() {
+        post { finish() }
+        worker.shutdown()
+    }
+
+    /** Runs [task] on the worker, unless the cache has been released meanwhile. */
+    private fun post(task: () -> Unit) {
+        try {
+            worker.execute {
+                try {
+                    task()
+                } catch (e: Exception) {
+                    e.printStackTrace()
+                }
+            }
+        } catch (e: RejectedExecutionException) {
+            // Released; the engine connection is already shut down
+        }
+    }
+
+    private fun loadSaved() {
+        val current = File(root, CURRENT_FILE)
+        if (!current.exists()) return
+        val savedKey = current.readText()
+        val dir = dirOf(savedKey)
+        val loaded = HashMap<String, ShortArray>()
+        for (phrase in phrases) {
+            val file = fileOf(dir, phrase)
+            if (!file.exists()) continue
+            WavPcm.decode(file.readBytes(), sampleRate)?.let { loaded[phrase] = it }
+        }
+        key = savedKey
+        clips = loaded
+    }
+
+    private fun onSynthReady(status: Int) {
+        val tts = synth ?: return
+        if (status != TextToSpeech.SUCCESS || tts.setLanguage(locale) < TextToSpeech.LANG_AVAILABLE) {
+            finish()
+            return
+        }
+        tts.setSpeechRate(speechRate)
+
+        val engineKey = listOf(
+            tts.defaultEngine, tts.voice?.name, locale.toLanguageTag(), speechRate, FORMAT_VERSION
+        ).joinToString("|")
+        if (engineKey != key) {
+            invalidate(engineKey)
+        }
+        val dir = dirOf(engineKey)
+        dir.mkdirs()
+
+        pending.clear()
+        phrases.filterTo(pending) { it !in clips }
+        if (pending.isEmpty()) {
+            finish()
+            return
+        }
+        tts.setOnUtteranceProgressListener(object : UtteranceProgressListener() {
+            override fun onStart(utteranceId: String) {}
+
+            override fun onDone(utteranceId: String) {
+                post { onRendered(dir, utteranceId, true) }
+            }
+
+            @Deprecated("Deprecated in Java")
+            override fun onError(utteranceId: String) {
+                post { onRendered(dir, utteranceId, false) }
+            }
+        })
+        for (phrase in pending.toList()) {
+            // Written under a temporary name so a half-rendered file is never loaded
+            val result = tts.synthesizeToFile(phrase, Bundle(), partialFileOf(dir, phrase), phrase)
+            if (result != TextToSpeech.SUCCESS) {
+                pending.remove(phrase)
+            }
+        }
+        if (pending.isEmpty()) finish()
+    }
+
+    private fun onRendered(dir: File, phrase: String, success: Boolean) {
+        if (!pending.remove(phrase)) return
+        val partial = partialFileOf(dir, phrase)
+        val file = fileOf(dir, phrase)
+        if (success && partial.renameTo(file)) {
+            WavPcm.decode(file.readBytes(), sampleRate)?.let { clips = clips + (phrase to it) }
+        } else {
+            partial.delete()
+        }
+        if (pending.isEmpty()) finish()
+    }
+
+    /** Drops every rendered phrase and starts over for [newKey]. */
+    private fun invalidate(newKey: String) {
+        root.listFiles()?.forEach { it.deleteRecursively() }
+        clips = emptyMap()
+        key = newKey
+        root.mkdirs()
+        File(root, CURRENT_FILE).writeText(newKey)
+    }
+
+    private fun finish() {
+        pending.clear()
+        synth?.shutdown()
+        synth = null
+    }
+
+    private fun dirOf(key: String): File = File(root, Integer.toHexString(key.hashCode()))
+
+    private fun fileOf(dir: File, phrase: String): File =
+        File(dir, Integer.toHexString(phrase.hashCode()) + ".wav")
+
+    private fun partialFileOf(dir: File, phrase: String): File =
+        File(dir, Integer.toHexString(phrase.hashCode()) + ".tmp")
+
+    companion object {
+        private const val CACHE_DIR = "speech"
+        private const val CURRENT_FILE = "current"
+        private const val WORKER_THREAD_NAME = "speech-cache"
+
+        /** Bump to re-render everything after a change to how phrases are stored. */
+        private const val FORMAT_VERSION = 1
+    }
+}
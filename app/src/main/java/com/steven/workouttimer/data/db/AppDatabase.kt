@@ -9,7 +9,7 @@ import androidx.sqlite.db.SupportSQLiteDatabase
 
 @Database(
     entities = [TimerEntity::class],
-    version = 3,
+    version = 4,
     exportSchema = false
 )
 abstract class AppDatabase : RoomDatabase() {
@@ -36,6 +36,25 @@ abstract class AppDatabase : RoomDatabase() {
             }
         }
 
+        /** Stores every timer as a segment plan; see WorkoutPlan.encode for the format. */
+        internal val MIGRATION_3_4_SQL = listOf(
+            "ALTER TABLE timers ADD COLUMN plan TEXT NOT NULL DEFAULT ''",
+            """
+            UPDATE timers SET plan = CASE timerMode
+                WHEN 'CLIMBING' THEN 'H' || holdSeconds || 'b'
+                    || CASE WHEN restSeconds > 0 THEN ',R' || restSeconds || 'ac' ELSE '' END
+                    || '*' || totalRepetitions
+                ELSE 'W60bc*' || totalMinutes
+            END
+            """.trimIndent()
+        )
+
+        private val MIGRATION_3_4 = object : Migration(3, 4) {
+            override fun migrate(db: SupportSQLiteDatabase) {
+                MIGRATION_3_4_SQL.forEach(db::execSQL)
+            }
+        }
+
         fun getDatabase(context: Context): AppDatabase {
             return INSTANCE ?: synchronized(this) {
                 val instance = Room.databaseBuilder(
@@ -43,7 +62,7 @@ abstract class AppDatabase : RoomDatabase() {
                     AppDatabase::class.java,
                     "workout_timer_database"
                 )
-                    .addMigrations(MIGRATION_1_2, MIGRATION_2_3)
+                    .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4)
                     .build()
                 INSTANCE = instance
                 instance
@@ -2,16 +2,9 @@ package com.steven.workouttimer.data.db
 
 import androidx.room.Entity
 import androidx.room.PrimaryKey
-
-enum class AudioType {
-    BEEP,
-    VOICE
-}
-
-enum class TimerMode {
-    WEIGHTLIFT,
-    CLIMBING
-}
+import com.steven.workouttimer.engine.AudioType
+import com.steven.workouttimer.engine.TimerMode
+import com.steven.workouttimer.engine.WorkoutPlan
 
 @Entity(tableName = "timers")
 data class TimerEntity(
@@ -24,9 +17,16 @@ data class TimerEntity(
     val audioType: String = AudioType.BEEP.name,
     val countdownSeconds: Int = 3,
     val initialCountdownSeconds: Int = 0,
-    // Climbing mode specific fields
-    val holdSeconds: Int = 7,         // Hold length (1-60 seconds)
-    val restSeconds: Int = 3,         // Break/rest length (1-60 seconds)
-    val totalRepetitions: Int = 6,    // Number of repetitions
+    // Preset parameters, kept for editing; the plan is what runs
+    val holdSeconds: Int = 7,         // Hold, work or interval length in seconds
+    val restSeconds: Int = 3,         // Break/rest length (0-60 seconds)
+    val totalRepetitions: Int = 6,    // Number of repetitions or rounds
+    val plan: String = "",            // WorkoutPlan.encode() of the segments to run
     val createdAt: Long = System.currentTimeMillis()
-)
+) {
+    /** The segments this timer runs; rows saved before plans existed fall back to their preset. */
+    fun workoutPlan(): WorkoutPlan = WorkoutPlan.decode(plan) ?: when (TimerMode.valueOf(timerMode)) {
+        TimerMode.CLIMBING -> WorkoutPlan.climbing(holdSeconds, restSeconds, totalRepetitions)
+        else -> WorkoutPlan.weightlift(totalMinutes)
+    }
+}
@@ -0,0 +1,40 @@
+package com.steven.workouttimer.data.preferences
+
+import android.content.Context
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+
+class TimerPreferences(context: Context) {
+    private val prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+
+    private val _pauseAutoStopMinutes = MutableStateFlow(prefs.getInt(KEY_PAUSE_AUTO_STOP_MINUTES, 0))
+    private val _cueAlarmWakeups = MutableStateFlow(prefs.getBoolean(KEY_CUE_ALARM_WAKEUPS, false))
+
+    /** Minutes a session may stay paused before it is stopped automatically; 0 disables it. */
+    val pauseAutoStopMinutes: StateFlow<Int> = _pauseAutoStopMinutes.asStateFlow()
+
+    /**
+     * When set, the timer lets the CPU sleep between cues and wakes it with exact alarms
+     * instead of holding a wake lock for the whole session.
+     */
+    val cueAlarmWakeups: StateFlow<Boolean> = _cueAlarmWakeups.asStateFlow()
+
+    fun setPauseAutoStopMinutes(minutes: Int) {
+        prefs.edit().putInt(KEY_PAUSE_AUTO_STOP_MINUTES, minutes).apply()
+        _pauseAutoStopMinutes.value = minutes
+    }
+
+    fun setCueAlarmWakeups(enabled: Boolean) {
+        prefs.edit().putBoolean(KEY_CUE_ALARM_WAKEUPS, enabled).apply()
+        _cueAlarmWakeups.value = enabled
+    }
+
+    companion object {
+        private const val PREFS_NAME = "timer_preferences"
+        private const val KEY_PAUSE_AUTO_STOP_MINUTES = "pause_auto_stop_minutes"
+        private const val KEY_CUE_ALARM_WAKEUPS = "cue_alarm_wakeups"
+
+        val PAUSE_AUTO_STOP_OPTIONS = listOf(0, 15, 30, 60)
+    }
+}
@@ -0,0 +1,241 @@
+package com.steven.workouttimer.service
+
+import android.util.AtomicFile
+import com.steven.workouttimer.engine.ActiveSession
+import com.steven.workouttimer.engine.AudioType
+import com.steven.workouttimer.engine.TimerMode
+import com.steven.workouttimer.engine.WorkoutPlan
+import java.io.File
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.atomic.AtomicReference
+
+/**
+ * Fixed-size on-disk snapshot of the running sessions, so a sticky restart after
+ * process death can pick every session up where it was.
+ *
+ * Each record holds the session's configuration and encoded plan plus its clock: the
+ * elapsedRealtime anchor, and the frozen elapsed time if paused. Since a session's
+ * position is a pure function of its anchor, the snapshot only changes when a session
+ * starts, stops, pauses, resumes, skips or is adjusted; nothing needs writing while it
+ * simply runs. The boot count is stored too because elapsedRealtime restarts from zero
+ * on reboot.
+ *
+ * The file is always [FILE_SIZE] bytes and is replaced atomically. [write] and [clear]
+ * only take an immutable copy of the sessions on the calling thread, which is the
+ * engine's; a background thread does the encoding and the disk I/O. Requests made
+ * while it is busy collapse into the latest, so a burst of pauses and skips costs at
+ * most one write in flight and one queued behind it.
+ */
+class SessionCheckpoint(file: File, private val bootCount: () -> Int) {
+
+    /** A session as read back from disk. */
+    data class Record(
+        val timerId: Long,
+        val timerName: String,
+        val timerMode: TimerMode,
+        /** The plan as running, including any adjustment. */
+        val plan: WorkoutPlan,
+        val audioEnabled: Boolean,
+        val audioType: AudioType,
+        val countdownSeconds: Int,
+        val initialCountdownSeconds: Int,
+        val anchorMs: Long,
+        val isPaused: Boolean,
+        val frozenElapsedMs: Long,
+        val pausedAtMs: Long
+    )
+
+    private val atomicFile = AtomicFile(file)
+    private val writer: ExecutorService = Executors.newSingleThreadExecutor { task ->
+        Thread(task, WRITER_THREAD_NAME)
+    }
+
+    // The latest snapshot not yet on disk; empty means delete the file
+    private val pending = AtomicReference<List<Record>?>()
+
+    /** Saves [sessions] in the background, replacing any snapshot not yet written. */
+    fun write(sessions: List<ActiveSession>) {
+        post(sessions.take(MAX_SESSIONS).map(::recordOf))
+    }
+
+    /** Deletes the snapshot in the background, after any write requested before. */
+    fun clear() {
+        post(emptyList())
+    }
+
+    /**
+     * Sessions saved during this boot, or an empty list if there are none or the file
+     * is from an earlier boot or an older format. Reads the disk on the calling thread;
+     * meant for start-up, before anything is written.
+     */
+    fun read(): List<Record> {
+        val bytes = try {
+            atomicFile.readFully()
+        } catch (e: IOException) {
+            return emptyList()
+        }
+        return decode(bytes, bootCount())
+    }
+
+    /** Finishes any pending write, then stops the writer thread. */
+    fun release() {
+        writer.shutdown()
+    }
+
+    private fun post(records: List<Record>) {
+        // A flush is already queued if a snapshot was pending; it will take this one
+        if (pending.getAndSet(records) != null) return
+        try {
+            writer.execute(::flush)
+        } catch (e: RejectedExecutionException) {
+            // Released; the service is going away
+        }
+    }
+
+    private fun flush() {
+        val records = pending.getAndSet(null) ?: return
+        if (records.isEmpty()) {
+            atomicFile.delete()
+            return
+        }
+        val bytes = encode(records, bootCount())
+        val stream = try {
+            atomicFile.startWrite()
+        } catch (e: IOException) {
+            return
+        }
+        try {
+            stream.write(bytes)
+            atomicFile.finishWrite(stream)
+        } catch (e: IOException) {
+            atomicFile.failWrite(stream)
+        }
+    }
+
+    private fun recordOf(running: ActiveSession): Record {
+        val session = running.session
+        val clock = running.clock
+        return Record(
+            timerId = session.timerId,
+            timerName = session.timerName,
+            timerMode = session.timerMode,
+            plan = session.plan,
+            audioEnabled = session.audioEnabled,
+            audioType = session.audioType,
+            countdownSeconds = session.countdownSeconds,
+            initialCountdownSeconds = session.initialCountdownSeconds,
+            anchorMs = clock.anchorMs,
+            isPaused = clock.isPaused,
+            frozenElapsedMs = clock.frozenElapsedMs,
+            pausedAtMs = running.pausedAtMs
+        )
+    }
+
+    companion object {
+        private const val MAGIC = 0x57544350 // "WTCP"
+        private const val VERSION = 3
+        private const val HEADER_SIZE = 16
+        private const val RECORD_SIZE = 320
+        private const val MAX_NAME_BYTES = 62
+        private const val MAX_PLAN_BYTES = 208
+        private const val WRITER_THREAD_NAME = "SessionCheckpoint"
+        const val MAX_SESSIONS = 16
+        const val FILE_SIZE = HEADER_SIZE + MAX_SESSIONS * RECORD_SIZE
+
+        /** The file contents for [records], saved during boot [bootCount]. */
+        internal fun encode(records: List<Record>, bootCount: Int): ByteArray {
+            val buffer = ByteBuffer.allocate(FILE_SIZE)
+            buffer.putInt(MAGIC)
+            buffer.putInt(VERSION)
+            buffer.putInt(bootCount)
+            val count = minOf(records.size, MAX_SESSIONS)
+            buffer.putInt(count)
+            for (i in 0 until count) {
+                buffer.position(HEADER_SIZE + i * RECORD_SIZE)
+                putRecord(buffer, records[i])
+            }
+            return buffer.array()
+        }
+
+        /**
+         * The records in [bytes], or an empty list unless they are a whole file of
+         * this format saved during boot [bootCount].
+         */
+        internal fun decode(bytes: ByteArray, bootCount: Int): List<Record> {
+            if (bytes.size != FILE_SIZE) return emptyList()
+            val data = ByteBuffer.wrap(bytes)
+            if (data.getInt() != MAGIC || data.getInt() != VERSION) return emptyList()
+            if (data.getInt() != bootCount) return emptyList()
+            val count = data.getInt().coerceIn(0, MAX_SESSIONS)
+            return List(count) { index ->
+                data.position(HEADER_SIZE + index * RECORD_SIZE)
+                getRecord(data)
+            }.filterNotNull()
+        }
+
+        private fun putRecord(buffer: ByteBuffer, record: Record) {
+            buffer.putLong(record.timerId)
+            buffer.put(record.timerMode.ordinal.toByte())
+            buffer.put(record.audioType.ordinal.toByte())
+            buffer.put(if (record.audioEnabled) 1 else 0)
+            buffer.put(if (record.isPaused) 1 else 0)
+            buffer.putInt(record.countdownSeconds)
+            buffer.putInt(record.initialCountdownSeconds)
+            buffer.putLong(record.anchorMs)
+            buffer.putLong(record.frozenElapsedMs)
+            buffer.putLong(record.pausedAtMs)
+
+            // A plan too long for its slot is written empty and dropped on restore
+            val planBytes = record.plan.encode().toByteArray(Charsets.US_ASCII)
+                .takeIf { it.size <= MAX_PLAN_BYTES } ?: ByteArray(0)
+            buffer.putShort(planBytes.size.toShort())
+            buffer.put(planBytes)
+
+            // Names are truncated to whole characters that fit the fixed slot
+            var name = record.timerName
+            var nameBytes = name.toByteArray(Charsets.UTF_8)
+            while (nameBytes.size > MAX_NAME_BYTES) {
+                name = name.dropLast(1)
+                nameBytes = name.toByteArray(Charsets.UTF_8)
+            }
+            buffer.putShort(nameBytes.size.toShort())
+            buffer.put(nameBytes)
+        }
+
+        private fun getRecord(data: ByteBuffer): Record? {
+            val timerId = data.getLong()
+            val timerMode = TimerMode.entries.getOrNull(data.get().toInt()) ?: return null
+            val audioType = AudioType.entries.getOrNull(data.get().toInt()) ?: return null
+            val audioEnabled = data.get() != 0.toByte()
+            val isPaused = data.get() != 0.toByte()
+            val countdownSeconds = data.getInt()
+            val initialCountdownSeconds = data.getInt()
+            val anchorMs = data.getLong()
+            val frozenElapsedMs = data.getLong()
+            val pausedAtMs = data.getLong()
+            val planLength = data.getShort().toInt().coerceIn(0, MAX_PLAN_BYTES)
+            val planBytes = ByteArray(planLength).also { data.get(it) }
+            val plan = WorkoutPlan.decode(String(planBytes, Charsets.US_ASCII)) ?: return null
+            val nameLength = data.getShort().toInt().coerceIn(0, MAX_NAME_BYTES)
+            val nameBytes = ByteArray(nameLength).also { data.get(it) }
+            return Record(
+                timerId = timerId,
+                timerName = String(nameBytes, Charsets.UTF_8),
+                timerMode = timerMode,
+                plan = plan,
+                audioEnabled = audioEnabled,
+                audioType = audioType,
+                countdownSeconds = countdownSeconds,
+                initialCountdownSeconds = initialCountdownSeconds,
+                anchorMs = anchorMs,
+                isPaused = isPaused,
+                frozenElapsedMs = frozenElapsedMs,
+                pausedAtMs = pausedAtMs
+            )
+        }
+    }
+}
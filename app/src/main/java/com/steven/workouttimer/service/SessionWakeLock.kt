@@ -0,0 +1,56 @@
+package com.steven.workouttimer.service
+
+import android.content.Context
+import android.os.PowerManager
+
+/**
+ * Partial wake lock that meters how long it has been held during the current session.
+ */
+class SessionWakeLock(context: Context, private val clock: () -> Long) {
+
+    private val wakeLock = (context.getSystemService(Context.POWER_SERVICE) as PowerManager)
+        .newWakeLock(PowerManager.PARTIAL_WAKE_LOCK, TAG)
+        .apply { setReferenceCounted(false) }
+
+    // Volatile so the meter can be read off the engine thread, e.g. by dump()
+    @Volatile private var heldSinceMs = NOT_HELD
+    @Volatile private var accumulatedMs = 0L
+
+    val isHeld: Boolean
+        get() = heldSinceMs != NOT_HELD
+
+    fun acquire(timeoutMs: Long) {
+        wakeLock.acquire(timeoutMs)
+        if (heldSinceMs == NOT_HELD) {
+            heldSinceMs = clock()
+        }
+    }
+
+    fun release() {
+        if (wakeLock.isHeld) {
+            wakeLock.release()
+        }
+        if (heldSinceMs != NOT_HELD) {
+            accumulatedMs += clock() - heldSinceMs
+            heldSinceMs = NOT_HELD
+        }
+    }
+
+    /** Total milliseconds held since the last [resetMeter], including the current hold. */
+    fun heldMs(): Long {
+        val current = if (heldSinceMs == NOT_HELD) 0L else clock() - heldSinceMs
+        return accumulatedMs + current
+    }
+
+    fun resetMeter() {
+        accumulatedMs = 0L
+        if (heldSinceMs != NOT_HELD) {
+            heldSinceMs = clock()
+        }
+    }
+
+    companion object {
+        private const val TAG = "StevenWorkoutTimer::TimerWakeLock"
+        private const val NOT_HELD = -1L
+    }
+}
@@ -0,0 +1,43 @@
+package com.steven.workouttimer.service
+
+import com.steven.workouttimer.engine.TimerSession
+
+/**
+ * A change to the running sessions. Screens, the banner, notification actions and
+ * alarms all send these to [TimerService], whose single consumer applies them in
+ * arrival order on the engine thread, so commands can never interleave or act on a
+ * stale view of a session.
+ *
+ * A null `timerId` applies the command to every session.
+ */
+sealed interface TimerCommand {
+    /** Starts [session]; if it is already running, only when [restart] is set. */
+    data class Start(val session: TimerSession, val restart: Boolean) : TimerCommand
+
+    data class Pause(val timerId: Long?) : TimerCommand
+
+    data class Resume(val timerId: Long?) : TimerCommand
+
+    /** Pauses the session if it is ticking, resumes it if paused. */
+    data class TogglePause(val timerId: Long) : TimerCommand
+
+    data class Stop(val timerId: Long?) : TimerCommand
+
+    /** Jumps to the start of the next segment: the next minute, hold or rest. */
+    data class SkipForward(val timerId: Long?) : TimerCommand
+
+    /** Jumps back to the start of the current segment, or the previous one. */
+    data class SkipBack(val timerId: Long?) : TimerCommand
+
+    /** Changes a running session's length by [deltaSeconds]. */
+    data class AdjustTime(val timerId: Long, val deltaSeconds: Int) : TimerCommand
+
+    /** Changes a running session's rounds by [delta]. */
+    data class AdjustRounds(val timerId: Long, val delta: Int) : TimerCommand
+
+    /** The exact alarm set ahead of the next cue has fired. */
+    object CueWakeup : TimerCommand
+
+    /** The idle auto-stop alarm has fired. */
+    object PauseTimeout : TimerCommand
+}
@@ -0,0 +1,27 @@
+package com.steven.workouttimer.service
+
+import kotlinx.coroutines.channels.Channel
+
+/**
+ * The one way [TimerCommand]s reach the running sessions. Any thread may [send]; a
+ * single consumer in [run] applies them one at a time in arrival order. Commands sent
+ * before the consumer starts, or while it handles another, wait their turn.
+ */
+internal class TimerCommandQueue {
+    private val channel = Channel<TimerCommand>(Channel.UNLIMITED)
+
+    fun send(command: TimerCommand) {
+        channel.trySend(command)
+    }
+
+    /** Applies commands with [handle] until [close] is called and the queue is drained. */
+    suspend fun run(handle: (TimerCommand) -> Unit) {
+        for (command in channel) {
+            handle(command)
+        }
+    }
+
+    fun close() {
+        channel.close()
+    }
+}
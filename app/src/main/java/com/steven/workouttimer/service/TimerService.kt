@@ -1,67 +1,139 @@
 package com.steven.workouttimer.service
 
+import android.app.AlarmManager
 import android.app.Notification
 import android.app.PendingIntent
 import android.app.Service
+import android.content.BroadcastReceiver
 import android.content.Context
 import android.content.Intent
+import android.content.IntentFilter
+import android.content.pm.ApplicationInfo
 import android.os.Binder
+import android.os.Handler
+import android.os.HandlerThread
+import android.os.Build
 import android.os.IBinder
-import android.os.PowerManager
+import android.os.Process
+import android.os.SystemClock
+import android.provider.Settings
 import androidx.core.app.NotificationCompat
+import androidx.core.content.ContextCompat
 import com.steven.workouttimer.MainActivity
 import com.steven.workouttimer.R
 import com.steven.workouttimer.WorkoutTimerApp
 import com.steven.workouttimer.audio.AudioNotificationManager
-import com.steven.workouttimer.data.db.AudioType
-import com.steven.workouttimer.data.db.TimerMode
+import com.steven.workouttimer.engine.ActiveSession
+import com.steven.workouttimer.engine.AudioType
+import com.steven.workouttimer.engine.CueTimeline
+import com.steven.workouttimer.engine.TickStats
+import com.steven.workouttimer.engine.TimerEngine
+import com.steven.workouttimer.engine.TimerMode
+import com.steven.workouttimer.engine.TimerSession
+import com.steven.workouttimer.engine.TimerTick
+import com.steven.workouttimer.engine.WorkoutPlan
 import com.steven.workouttimer.util.TimeUtils
 import kotlinx.coroutines.CoroutineScope
-import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.Job
 import kotlinx.coroutines.SupervisorJob
-import kotlinx.coroutines.delay
+import kotlinx.coroutines.android.asCoroutineDispatcher
+import kotlinx.coroutines.cancel
 import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.StateFlow
 import kotlinx.coroutines.flow.asStateFlow
 import kotlinx.coroutines.launch
-
-data class TimerState(
-    val timerId: Long = 0,
-    val timerName: String = "",
-    val timerMode: TimerMode = TimerMode.WEIGHTLIFT,
-    val isRunning: Boolean = false,
-    val isPaused: Boolean = false,
-    val currentSecond: Int = 0,
-    val totalSeconds: Int = 0,
-    val currentMinute: Int = 0,
-    val totalMinutes: Int = 0,
-    val audioEnabled: Boolean = true,
-    val audioType: AudioType = AudioType.BEEP,
-    val countdownSeconds: Int = 3,
-    val initialCountdownSeconds: Int = 0,
-    val initialCountdownRemaining: Int = 0,
-    val isInInitialCountdown: Boolean = false,
-    val isComplete: Boolean = false,
-    // Climbing mode specific
-    val holdSeconds: Int = 7,
-    val restSeconds: Int = 3,
-    val totalRepetitions: Int = 6,
-    val currentRepetition: Int = 0,
-    val secondInRep: Int = 0,
-    val isHolding: Boolean = true  // true = hold phase, false = rest phase
-)
+import java.io.File
+import java.io.FileDescriptor
+import java.io.PrintWriter
+import java.util.concurrent.ConcurrentHashMap
 
 class TimerService : Service() {
 
     private val binder = TimerBinder()
-    private val serviceScope = CoroutineScope(SupervisorJob() + Dispatchers.Main)
+    // The tick loop runs on its own high-priority thread so UI work on the main looper
+    // (recomposition, navigation, dialogs) cannot delay ticks or cues. All session state
+    // is owned by this thread; public entry points post onto it.
+    private lateinit var engineThread: HandlerThread
+    private lateinit var serviceScope: CoroutineScope
     private var timerJob: Job? = null
+
+    // Every change to the sessions goes through here and is applied in order by the one
+    // consumer started in onCreate
+    private val commands = TimerCommandQueue()
     private var audioManager: AudioNotificationManager? = null
-    private var wakeLock: PowerManager.WakeLock? = null
 
-    private val _timerState = MutableStateFlow(TimerState())
-    val timerState: StateFlow<TimerState> = _timerState.asStateFlow()
+    // Switches the beep timing test mode; only registered in debuggable builds
+    private val beepTimingReceiver = object : BroadcastReceiver() {
+        override fun onReceive(context: Context, intent: Intent) {
+            audioManager?.verifyBeepTiming = intent.getBooleanExtra(EXTRA_ENABLED, true)
+        }
+    }
+    private var beepTimingReceiverRegistered = false
+    private lateinit var wakeLock: SessionWakeLock
+    private lateinit var checkpoint: SessionCheckpoint
+    private var cueWakeups = false
+    private var armedWakeupAt = NO_WAKEUP
+    // Set while planCueWakeup has closed the cue stream for the CPU to sleep
+    private var audioStreamAsleep = false
+
+    // Every running session is driven by the same loop and the same sleep: session
+    // ticks are timers on one wheel, and each wakeup fires everything due together
+    private val engine = TimerEngine(SystemClock::elapsedRealtime, EngineListener())
+    private val active: List<ActiveSession>
+        get() = engine.sessions
+    private var wakeupMeterStartMs = 0L
+    private var primary: ActiveSession? = null
+
+    // Per-timer flows outlive their sessions so screens can subscribe before a start
+    private val sessionFlows = ConcurrentHashMap<Long, MutableStateFlow<TimerSession?>>()
+    private val tickFlows = ConcurrentHashMap<Long, MutableStateFlow<TimerTick>>()
+
+    private val _sessions = MutableStateFlow<List<TimerSession>>(emptyList())
+
+    /** Every running session, in start order. */
+    val sessions: StateFlow<List<TimerSession>> = _sessions.asStateFlow()
+
+    private val _session = MutableStateFlow<TimerSession?>(null)
+
+    /**
+     * The most recently started session that is still running, for surfaces that show
+     * a single timer. Use [sessionOf] to follow a specific timer.
+     */
+    val session: StateFlow<TimerSession?> = _session.asStateFlow()
+
+    private val _tick = MutableStateFlow(TimerTick.IDLE)
+
+    /** Elapsed time, phase and repetition of [session]; updated every tick. */
+    val tick: StateFlow<TimerTick> = _tick.asStateFlow()
+
+    /** Times the engine loop has woken since the first running session started. */
+    val tickWakeups: Long
+        get() = engine.wakeupCount
+
+    /** Engine wakeups per minute since the first running session started. */
+    val wakeupsPerMinute: Double
+        get() {
+            val minutes = (SystemClock.elapsedRealtime() - wakeupMeterStartMs) / 60_000.0
+            return if (minutes <= 0.0) 0.0 else engine.wakeupCount / minutes
+        }
+
+    // Reused for every post; only the text, chronometer and actions change
+    private var notificationBuilder: NotificationCompat.Builder? = null
+    private var cachedContentIntent: PendingIntent? = null
+    private var contentIntentTimerId = 0L
+    private val pauseIntent by lazy { serviceActionIntent(1, ACTION_PAUSE) }
+    private val resumeIntent by lazy { serviceActionIntent(1, ACTION_RESUME) }
+    private val stopIntent by lazy { serviceActionIntent(2, ACTION_STOP) }
+    private val skipForwardIntent by lazy { serviceActionIntent(5, ACTION_SKIP_FORWARD) }
+
+    /** Notifications posted since the first running session started. */
+    @Volatile
+    var notificationPosts = 0
+        private set
+
+    /** Milliseconds the wake lock has been held since the first running session started. */
+    val wakeLockHeldMs: Long
+        get() = wakeLock.heldMs()
 
     inner class TimerBinder : Binder() {
         fun getService(): TimerService = this@TimerService
@@ -71,240 +143,485 @@ class TimerService : Service() {
 
     override fun onCreate() {
         super.onCreate()
+        engineThread = HandlerThread(ENGINE_THREAD_NAME, Process.THREAD_PRIORITY_AUDIO).apply { start() }
+        serviceScope = CoroutineScope(
+            SupervisorJob() + Handler(engineThread.looper).asCoroutineDispatcher(ENGINE_THREAD_NAME)
+        )
         audioManager = AudioNotificationManager(this)
-        acquireWakeLock()
+        if (applicationInfo.flags and ApplicationInfo.FLAG_DEBUGGABLE != 0) {
+            ContextCompat.registerReceiver(
+                this, beepTimingReceiver, IntentFilter(ACTION_DEBUG_BEEP_TIMING), ContextCompat.RECEIVER_EXPORTED
+            )
+            beepTimingReceiverRegistered = true
+        }
+        wakeLock = SessionWakeLock(this, SystemClock::elapsedRealtime)
+        checkpoint = SessionCheckpoint(File(noBackupFilesDir, CHECKPOINT_FILE)) {
+            Settings.Global.getInt(contentResolver, Settings.Global.BOOT_COUNT, 0)
+        }
+
+        serviceScope.launch {
+            // After process death START_STICKY recreates the service; pick up where it
+            // was before taking any command
+            restoreSessions()
+            commands.run(::handle)
+        }
     }
 
     override fun onStartCommand(intent: Intent?, flags: Int, startId: Int): Int {
         when (intent?.action) {
-            ACTION_PAUSE -> pauseTimer()
-            ACTION_RESUME -> resumeTimer()
-            ACTION_STOP -> stopTimer()
+            ACTION_PAUSE -> pauseTimer(intent.timerIdExtra())
+            ACTION_RESUME -> resumeTimer(intent.timerIdExtra())
+            ACTION_STOP -> stopTimer(intent.timerIdExtra())
+            ACTION_SKIP_FORWARD -> skipForward(intent.timerIdExtra())
+            ACTION_SKIP_BACK -> skipBack(intent.timerIdExtra())
+            ACTION_CUE_WAKEUP -> commands.send(TimerCommand.CueWakeup)
+            ACTION_PAUSE_TIMEOUT -> commands.send(TimerCommand.PauseTimeout)
         }
         return START_STICKY
     }
 
     override fun onDestroy() {
         super.onDestroy()
-        timerJob?.cancel()
+        commands.close()
+        if (beepTimingReceiverRegistered) {
+            unregisterReceiver(beepTimingReceiver)
+        }
+        serviceScope.cancel()
+        engineThread.quitSafely()
         audioManager?.release()
+        cancelPauseTimeout()
+        cancelCueWakeup()
         releaseWakeLock()
+        checkpoint.release()
     }
 
-    private fun acquireWakeLock() {
-        val powerManager = getSystemService(Context.POWER_SERVICE) as PowerManager
-        wakeLock = powerManager.newWakeLock(
-            PowerManager.PARTIAL_WAKE_LOCK,
-            "StevenWorkoutTimer::TimerWakeLock"
-        ).apply {
-            acquire(120 * 60 * 1000L) // Max 2 hours
+    /**
+     * Prints the engine's meters for `adb shell dumpsys activity service
+     * com.steven.workouttimer/.service.TimerService`. Runs on a binder thread, so it
+     * only reads state that is safe to read off the engine thread.
+     *
+     * In debuggable builds `adb shell am broadcast -a com.steven.workouttimer.DEBUG_BEEP_TIMING
+     * --ez enabled true` turns on the test mode that also prints how far the output clock
+     * estimate drifts at scheduled beeps, see [AudioNotificationManager.verifyBeepTiming].
+     */
+    override fun dump(fd: FileDescriptor?, writer: PrintWriter, args: Array<out String>?) {
+        val sessions = active
+        writer.println("TimerService: ${sessions.size} running")
+        for (running in sessions) {
+            val session = running.session
+            val stats = running.clock.stats
+            writer.println(
+                "  #${session.timerId} \"${session.timerName}\" ${session.timerMode} ${running.tick}"
+            )
+            writer.println(
+                "    ticks=${stats.tickCount} lateness last=${stats.lastLatenessMs}ms " +
+                    "max=${stats.maxLatenessMs}ms mean=${"%.1f".format(stats.meanLatenessMs)}ms"
+            )
+        }
+        writer.println("Since the first session started:")
+        writer.println("  tick lateness ms: ${engine.tickLateness.summary()}")
+        writer.println("  cue dispatch delay ms: ${engine.cueDelay.summary()}")
+        writer.println("  engine wakeups: ${engine.wakeupCount} (${"%.1f".format(wakeupsPerMinute)}/min)")
+        writer.println("  notification posts: $notificationPosts")
+        writer.println("  wake lock held: ${wakeLockHeldMs}ms")
+        audioManager?.let {
+            writer.println("  beep onset ms (stream): ${it.streamOnsetLatency.summary()} dropped=${it.droppedTones}")
+            writer.println("  beep onset ms (own track): ${it.staticOnsetLatency.summary()}")
+            writer.println("  tone cache: ${it.toneCacheSummary()}")
+            writer.println("  speech cache: ${it.speechCacheSummary()}")
+            writer.println("  audio cues dropped as stale: ${it.droppedCues}")
+            if (it.verifyBeepTiming) {
+                writer.println("  scheduled beep clock drift frames: ${it.beepTimingSummary()}")
+            }
         }
     }
 
+    /** Fixed configuration of [timerId]'s session, or null while it is not running. */
+    fun sessionOf(timerId: Long): StateFlow<TimerSession?> = sessionFlow(timerId)
+
+    /** Live tick of [timerId]'s session; [TimerTick.IDLE] while it is not running. */
+    fun tickOf(timerId: Long): StateFlow<TimerTick> = tickFlow(timerId)
+
+    /** Per-tick lateness of [timerId]'s session, or null if it is not running. */
+    fun tickStats(timerId: Long): TickStats? = engine.find(timerId)?.clock?.stats
+
+    private fun sessionFlow(timerId: Long): MutableStateFlow<TimerSession?> =
+        sessionFlows.getOrPut(timerId) { MutableStateFlow(null) }
+
+    private fun tickFlow(timerId: Long): MutableStateFlow<TimerTick> =
+        tickFlows.getOrPut(timerId) { MutableStateFlow(TimerTick.IDLE) }
+
+    private fun Intent.timerIdExtra(): Long? =
+        if (hasExtra(EXTRA_TIMER_ID)) getLongExtra(EXTRA_TIMER_ID, 0L) else null
+
+    /**
+     * Holds the CPU awake while a session is ticking. Released while every session is
+     * paused so paused sessions cost no wakeups at all.
+     */
+    private fun acquireWakeLock() {
+        wakeLock.acquire(120 * 60 * 1000L) // Max 2 hours
+    }
+
     private fun releaseWakeLock() {
-        wakeLock?.let {
-            if (it.isHeld) {
-                it.release()
-            }
+        wakeLock.release()
+    }
+
+    private fun canUseCueWakeups(): Boolean {
+        if (!(application as WorkoutTimerApp).container.timerPreferences.cueAlarmWakeups.value) return false
+        val alarmManager = getSystemService(Context.ALARM_SERVICE) as AlarmManager
+        return Build.VERSION.SDK_INT < Build.VERSION_CODES.S || alarmManager.canScheduleExactAlarms()
+    }
+
+    /**
+     * In cue wakeup mode, lets the CPU sleep through long gaps between cues. An exact
+     * alarm is set shortly before the next cue of any session and the wake lock is
+     * dropped; the alarm re-acquires it and nudges the tick loop back onto real time.
+     *
+     * The cue stream is closed for the gap too, since a track fed with silence keeps the
+     * audio hardware and its wake lock up. Reopening it costs a few tens of milliseconds,
+     * well within the alarm's lead; nothing is scheduled into the stream while it is
+     * closed, as cues are only lined up one tick ahead.
+     */
+    private fun planCueWakeup() {
+        var nextCueMs = Long.MAX_VALUE
+        for (i in 0 until active.size) {
+            val running = active[i]
+            if (!running.isTicking) continue
+            val timeline = running.timeline
+            val cursor = running.cueCursor
+            // Keep the CPU up for one tick after a cue so its audio can start
+            if (cursor > 0 && timeline.cueTick(cursor - 1) == running.position) return
+            val nextCueTick = if (cursor < timeline.cueCount) timeline.cueTick(cursor) else timeline.totalTicks
+            nextCueMs = minOf(nextCueMs, running.clock.realtimeOf(nextCueTick))
         }
-        wakeLock = null
+        if (nextCueMs == Long.MAX_VALUE) return
+        if (nextCueMs - SystemClock.elapsedRealtime() < CUE_SLEEP_THRESHOLD_MS) {
+            // Woken some other way than the alarm, e.g. by a skip close to a cue
+            if (audioStreamAsleep) updateAudioStream()
+            return
+        }
+
+        if (armedWakeupAt != nextCueMs) {
+            val alarmManager = getSystemService(Context.ALARM_SERVICE) as AlarmManager
+            alarmManager.setExactAndAllowWhileIdle(
+                AlarmManager.ELAPSED_REALTIME_WAKEUP,
+                nextCueMs - CUE_WAKE_LEAD_MS,
+                cueWakeupIntent()
+            )
+            armedWakeupAt = nextCueMs
+        }
+        if (!audioStreamAsleep) {
+            audioStreamAsleep = true
+            audioManager?.closeStream()
+        }
+        releaseWakeLock()
+    }
+
+    private fun cancelCueWakeup() {
+        if (armedWakeupAt == NO_WAKEUP) return
+        val alarmManager = getSystemService(Context.ALARM_SERVICE) as AlarmManager
+        alarmManager.cancel(cueWakeupIntent())
+        armedWakeupAt = NO_WAKEUP
+    }
+
+    private fun cueWakeupIntent(): PendingIntent = PendingIntent.getService(
+        this,
+        4,
+        Intent(this, TimerService::class.java).apply {
+            action = ACTION_CUE_WAKEUP
+        },
+        PendingIntent.FLAG_UPDATE_CURRENT or PendingIntent.FLAG_IMMUTABLE
+    )
+
+    /**
+     * Schedules the optional idle auto-stop for the longest-paused session. Uses an
+     * alarm rather than a coroutine timeout because the CPU may sleep while paused.
+     */
+    private fun schedulePauseTimeout() {
+        cancelPauseTimeout()
+        val minutes = (application as WorkoutTimerApp).container.timerPreferences.pauseAutoStopMinutes.value
+        if (minutes <= 0) return
+        val earliestPauseMs = active.filter { !it.isTicking }.minOfOrNull { it.pausedAtMs } ?: return
+        val alarmManager = getSystemService(Context.ALARM_SERVICE) as AlarmManager
+        alarmManager.set(
+            AlarmManager.ELAPSED_REALTIME_WAKEUP,
+            earliestPauseMs + minutes * 60 * 1000L,
+            pauseTimeoutIntent()
+        )
     }
 
+    private fun cancelPauseTimeout() {
+        val alarmManager = getSystemService(Context.ALARM_SERVICE) as AlarmManager
+        alarmManager.cancel(pauseTimeoutIntent())
+    }
+
+    private fun pauseTimeoutIntent(): PendingIntent = PendingIntent.getService(
+        this,
+        3,
+        Intent(this, TimerService::class.java).apply {
+            action = ACTION_PAUSE_TIMEOUT
+        },
+        PendingIntent.FLAG_UPDATE_CURRENT or PendingIntent.FLAG_IMMUTABLE
+    )
+
+    private fun stopIdleSessions() {
+        val minutes = (application as WorkoutTimerApp).container.timerPreferences.pauseAutoStopMinutes.value
+        if (minutes <= 0) return
+        val cutoffMs = SystemClock.elapsedRealtime() - minutes * 60 * 1000L
+        active.filter { !it.isTicking && it.pausedAtMs <= cutoffMs }
+            .forEach { discardSession(it) }
+        onSessionsChanged()
+    }
+
+    /**
+     * Starts [timerId]'s session alongside any that are already running. If the timer
+     * is already running it is left alone, unless [restart] is set, in which case it
+     * starts over.
+     */
     fun startTimer(
         timerId: Long,
         timerName: String,
         timerMode: TimerMode,
-        totalMinutes: Int,
+        plan: WorkoutPlan,
         audioEnabled: Boolean,
         audioType: AudioType,
         countdownSeconds: Int,
         initialCountdownSeconds: Int = 0,
-        // Climbing mode parameters
-        holdSeconds: Int = 7,
-        restSeconds: Int = 3,
-        totalRepetitions: Int = 6
+        restart: Boolean = false
     ) {
-        val hasInitialCountdown = initialCountdownSeconds > 0
-        val repetitionSeconds = holdSeconds + restSeconds
-
-        val totalSeconds = when (timerMode) {
-            TimerMode.WEIGHTLIFT -> totalMinutes * 60
-            TimerMode.CLIMBING -> repetitionSeconds * totalRepetitions
-        }
-
-        _timerState.value = TimerState(
-            timerId = timerId,
-            timerName = timerName,
-            timerMode = timerMode,
-            isRunning = true,
-            isPaused = false,
-            currentSecond = 0,
-            totalSeconds = totalSeconds,
-            currentMinute = 0,
-            totalMinutes = totalMinutes,
-            audioEnabled = audioEnabled,
-            audioType = audioType,
-            countdownSeconds = countdownSeconds,
-            initialCountdownSeconds = initialCountdownSeconds,
-            initialCountdownRemaining = initialCountdownSeconds,
-            isInInitialCountdown = hasInitialCountdown,
-            isComplete = false,
-            holdSeconds = holdSeconds,
-            restSeconds = restSeconds,
-            totalRepetitions = totalRepetitions,
-            currentRepetition = 0,
-            secondInRep = 0,
-            isHolding = true
+        val session = TimerEngine.compileSession(
+            timerId, timerName, timerMode, plan, audioEnabled, audioType, countdownSeconds, initialCountdownSeconds
         )
+        commands.send(TimerCommand.Start(session, restart))
+    }
 
-        startForeground(NOTIFICATION_ID, createNotification())
-        if (hasInitialCountdown) {
-            startInitialCountdown()
-        } else {
-            when (timerMode) {
-                TimerMode.WEIGHTLIFT -> startWorkoutCountdown()
-                TimerMode.CLIMBING -> startClimbingCountdown()
-            }
-        }
+    /** Pauses [timerId]'s session, or every session when it is null. */
+    fun pauseTimer(timerId: Long? = null) {
+        commands.send(TimerCommand.Pause(timerId))
     }
 
-    private fun startInitialCountdown() {
-        timerJob?.cancel()
-        timerJob = serviceScope.launch {
-            while (_timerState.value.initialCountdownRemaining > 0) {
-                if (!_timerState.value.isPaused) {
-                    val state = _timerState.value
-                    val remaining = state.initialCountdownRemaining
-
-                    // Play countdown audio only when within the configured countdown threshold
-                    if (state.audioEnabled && remaining <= state.countdownSeconds) {
-                        playAudioNotification(state.audioType, remaining, state.countdownSeconds)
-                    }
-
-                    updateNotification()
-                    delay(1000)
-
-                    _timerState.value = state.copy(
-                        initialCountdownRemaining = remaining - 1
-                    )
-                } else {
-                    delay(1000)
+    /** Resumes [timerId]'s session, or every paused session when it is null. */
+    fun resumeTimer(timerId: Long? = null) {
+        commands.send(TimerCommand.Resume(timerId))
+    }
+
+    /**
+     * Pauses [timerId]'s session if it is ticking and resumes it if it is paused,
+     * decided when the command is applied rather than from what the caller last saw.
+     */
+    fun togglePauseTimer(timerId: Long) {
+        commands.send(TimerCommand.TogglePause(timerId))
+    }
+
+    /** Stops [timerId]'s session, or every session when it is null. */
+    fun stopTimer(timerId: Long? = null) {
+        commands.send(TimerCommand.Stop(timerId))
+    }
+
+    /**
+     * Moves [timerId]'s session, or every session when it is null, to the start of its
+     * next minute, hold or rest phase.
+     */
+    fun skipForward(timerId: Long? = null) {
+        commands.send(TimerCommand.SkipForward(timerId))
+    }
+
+    /**
+     * Moves [timerId]'s session, or every session when it is null, back to the start
+     * of its current minute, hold or rest phase, or the previous one if that has only
+     * just begun.
+     */
+    fun skipBack(timerId: Long? = null) {
+        commands.send(TimerCommand.SkipBack(timerId))
+    }
+
+    /** Lengthens, or with a negative delta shortens, [timerId]'s session. */
+    fun adjustTime(timerId: Long, deltaSeconds: Int) {
+        commands.send(TimerCommand.AdjustTime(timerId, deltaSeconds))
+    }
+
+    /** Adds, or with a negative delta removes, whole rounds of [timerId]'s session. */
+    fun adjustRounds(timerId: Long, delta: Int) {
+        commands.send(TimerCommand.AdjustRounds(timerId, delta))
+    }
+
+    private fun handle(command: TimerCommand) {
+        when (command) {
+            is TimerCommand.Start -> start(command.session, command.restart)
+            is TimerCommand.Pause -> pause(command.timerId)
+            is TimerCommand.Resume -> resume(command.timerId)
+            is TimerCommand.TogglePause -> {
+                val running = engine.find(command.timerId) ?: return
+                if (running.isTicking) pause(command.timerId) else resume(command.timerId)
+            }
+            is TimerCommand.Stop -> stop(command.timerId)
+            is TimerCommand.SkipForward -> seek(command.timerId, engine::skipForward)
+            is TimerCommand.SkipBack -> seek(command.timerId, engine::skipBack)
+            is TimerCommand.AdjustTime -> adjust(command.timerId) { engine.adjustTime(it, command.deltaSeconds) }
+            is TimerCommand.AdjustRounds -> adjust(command.timerId) { engine.adjustRounds(it, command.delta) }
+            TimerCommand.CueWakeup -> {
+                armedWakeupAt = NO_WAKEUP
+                if (active.any { it.isTicking }) {
+                    acquireWakeLock()
+                    if (audioStreamAsleep) updateAudioStream()
+                    engine.wake()
                 }
             }
+            TimerCommand.PauseTimeout -> stopIdleSessions()
+        }
+    }
 
-            // Initial countdown complete, start the workout
-            val currentState = _timerState.value
-            _timerState.value = currentState.copy(
-                isInInitialCountdown = false
-            )
-            audioManager?.playDoubleBeep()
-            when (currentState.timerMode) {
-                TimerMode.WEIGHTLIFT -> startWorkoutCountdown()
-                TimerMode.CLIMBING -> startClimbingCountdown()
-            }
+    private fun start(session: TimerSession, restart: Boolean) {
+        val existing = engine.find(session.timerId)
+        if (existing != null) {
+            if (!restart) return
+            removeSession(existing)
+        }
+        if (active.isEmpty()) {
+            resetMeters()
+        }
+
+        addSession(engine.start(session))
+        checkpoint.write(active)
+
+        startForeground(NOTIFICATION_ID, createNotification())
+        notificationPosts++
+        cancelCueWakeup()
+        acquireWakeLock()
+        ensureTicking()
+    }
+
+    /** Publishes a session the engine has just started or restored. */
+    private fun addSession(running: ActiveSession) {
+        val session = running.session
+        if (session.audioEnabled && session.audioType == AudioType.BEEP) {
+            audioManager?.prepareCountdown(running.timeline.maxCountdownSeconds)
         }
+        if (session.audioEnabled) {
+            audioManager?.prepareSpeech()
+        }
+        updateAudioStream()
+        sessionFlow(running.session.timerId).value = running.session
+        setPrimary(running)
+        publishSessions()
     }
 
-    private fun startWorkoutCountdown() {
-        timerJob?.cancel()
-        timerJob = serviceScope.launch {
-            while (_timerState.value.currentSecond < _timerState.value.totalSeconds) {
-                if (!_timerState.value.isPaused) {
-                    val state = _timerState.value
-                    val currentSecond = state.currentSecond
-                    val secondsInCurrentMinute = currentSecond % 60
-                    val currentMinute = currentSecond / 60
-
-                    // Check if we need to play audio notification
-                    if (state.audioEnabled) {
-                        val secondsUntilNextMinute = 60 - secondsInCurrentMinute
-                        if (secondsUntilNextMinute <= state.countdownSeconds && secondsUntilNextMinute > 0) {
-                            playAudioNotification(state.audioType, secondsUntilNextMinute, state.countdownSeconds)
-                        }
-                        // Play at the start of each minute (except first)
-                        if (secondsInCurrentMinute == 0 && currentMinute > 0) {
-                            audioManager?.playDoubleBeep()
-                        }
-                    }
-
-                    _timerState.value = state.copy(
-                        currentSecond = currentSecond + 1,
-                        currentMinute = currentMinute
-                    )
-
-                    updateNotification()
-                }
-                delay(1000)
-            }
+    /**
+     * Keeps the cue audio stream open only while a session with audio is ticking. Beeps
+     * and recorded phrases both play through it. In cue wakeup mode [planCueWakeup] also
+     * closes it while the CPU sleeps between cues.
+     */
+    private fun updateAudioStream() {
+        audioStreamAsleep = false
+        val audible = active.any { it.isTicking && it.session.audioEnabled }
+        if (audible) audioManager?.openStream() else audioManager?.closeStream()
+    }
 
-            // Timer complete
-            _timerState.value = _timerState.value.copy(
-                isRunning = false,
-                isComplete = true
+    private fun resetMeters() {
+        notificationPosts = 0
+        wakeLock.resetMeter()
+        engine.resetMeters()
+        audioManager?.resetMeters()
+        wakeupMeterStartMs = SystemClock.elapsedRealtime()
+        cueWakeups = canUseCueWakeups()
+    }
+
+    /**
+     * Brings back the sessions saved before the process died, each at the exact
+     * position its saved anchor puts it at now. Cues that fell due while the process
+     * was gone are skipped; the rest fire on schedule. Sessions that would have
+     * finished in the meantime are dropped.
+     */
+    private fun restoreSessions() {
+        for (record in checkpoint.read()) {
+            val session = TimerEngine.compileSession(
+                record.timerId, record.timerName, record.timerMode, record.plan, record.audioEnabled,
+                record.audioType, record.countdownSeconds, record.initialCountdownSeconds
             )
-            audioManager?.speakText("Workout complete!")
-            stopForeground(STOP_FOREGROUND_REMOVE)
-            stopSelf()
+            val wasIdle = active.isEmpty()
+            val running = engine.restore(
+                session, record.anchorMs, record.isPaused, record.frozenElapsedMs, record.pausedAtMs
+            ) ?: continue
+            if (wasIdle) {
+                resetMeters()
+            }
+            addSession(running)
+        }
+
+        if (active.isEmpty()) {
+            checkpoint.clear()
+            return
         }
+        startForeground(NOTIFICATION_ID, createNotification())
+        notificationPosts++
+        onSessionsChanged()
     }
 
-    private fun startClimbingCountdown() {
-        timerJob?.cancel()
+    /**
+     * Runs the engine loop unless it is already running, in which case it is woken to
+     * pick up changed deadlines.
+     */
+    private fun ensureTicking() {
+        if (timerJob?.isActive == true) {
+            engine.wake()
+            return
+        }
         timerJob = serviceScope.launch {
-            while (_timerState.value.currentRepetition < _timerState.value.totalRepetitions) {
-                if (!_timerState.value.isPaused) {
-                    val state = _timerState.value
-                    val secondInRep = state.secondInRep
-                    val isHolding = secondInRep < state.holdSeconds
-                    val repetitionSeconds = state.holdSeconds + state.restSeconds
-
-                    // Calculate time remaining in current phase
-                    val timeInPhase = if (isHolding) {
-                        secondInRep
-                    } else {
-                        secondInRep - state.holdSeconds
-                    }
-                    val phaseLength = if (isHolding) state.holdSeconds else state.restSeconds
-                    val secondsUntilNextPhase = phaseLength - timeInPhase
-
-                    // Play audio notifications
-                    if (state.audioEnabled) {
-                        // Countdown before phase change (only during rest/break phase, not hold)
-                        if (!isHolding && secondsUntilNextPhase <= state.countdownSeconds && secondsUntilNextPhase > 0) {
-                            playAudioNotification(state.audioType, secondsUntilNextPhase, state.countdownSeconds)
-                        }
-                        // Announce phase change
-                        if (secondInRep == 0 && state.currentRepetition > 0) {
-                            audioManager?.playDoubleBeep()
-                        }
-                        if (secondInRep == state.holdSeconds && state.restSeconds > 0) {
-                            audioManager?.speakText("Rest")
-                        }
-                    }
-
-                    val nextSecondInRep = secondInRep + 1
-                    val repComplete = nextSecondInRep >= repetitionSeconds
-
-                    _timerState.value = state.copy(
-                        currentSecond = state.currentSecond + 1,
-                        secondInRep = if (repComplete) 0 else nextSecondInRep,
-                        currentRepetition = if (repComplete) state.currentRepetition + 1 else state.currentRepetition,
-                        isHolding = if (repComplete) true else nextSecondInRep < state.holdSeconds
-                    )
-
-                    updateNotification()
-                }
-                delay(1000)
+            engine.run()
+        }
+    }
+
+    /** Connects the engine's callbacks to flows, audio, the notification and alarms. */
+    private inner class EngineListener : TimerEngine.Listener {
+        override fun onTick(running: ActiveSession) {
+            tickFlow(running.session.timerId).value = running.tick
+            if (running === primary) {
+                _tick.value = running.tick
             }
+        }
 
-            // Climbing workout complete
-            _timerState.value = _timerState.value.copy(
-                isRunning = false,
-                isComplete = true
-            )
-            audioManager?.speakText("Climbing workout complete!")
-            stopForeground(STOP_FOREGROUND_REMOVE)
-            stopSelf()
+        override fun onCue(running: ActiveSession, kind: Int, value: Int) {
+            when (kind) {
+                CueTimeline.CUE_COUNTDOWN -> playAudioNotification(
+                    running.session.audioType,
+                    value,
+                    running.timeline.maxCountdownSeconds
+                )
+                CueTimeline.CUE_DOUBLE_BEEP -> audioManager?.playDoubleBeep()
+                CueTimeline.CUE_ANNOUNCE -> audioManager?.speakSegment(value)
+                CueTimeline.CUE_COMPLETE -> audioManager?.speakText(running.timeline.completionMessage)
+            }
+        }
+
+        override fun onCueAhead(running: ActiveSession, kind: Int, value: Int, dueMs: Long): Boolean {
+            val session = running.session
+            if (kind != CueTimeline.CUE_COUNTDOWN) return false
+            return when (session.audioType) {
+                AudioType.BEEP -> audioManager?.scheduleCountdownBeep(
+                    session.timerId, value, running.timeline.maxCountdownSeconds, dueMs
+                )
+                AudioType.VOICE -> audioManager?.scheduleSpokenNumber(session.timerId, value, dueMs)
+            } ?: false
+        }
+
+        override fun onCuesRevoked(running: ActiveSession) {
+            audioManager?.cancelScheduled(running.session.timerId)
+        }
+
+        override fun onComplete(running: ActiveSession) {
+            onSessionRemoved(running)
+        }
+
+        override fun onPassComplete(segmentsChanged: Boolean, sessionsEnded: Boolean) {
+            if (sessionsEnded) {
+                onSessionsChanged()
+            } else if (segmentsChanged) {
+                // The system counts down within a segment; repost only at boundaries
+                updateNotification()
+            }
+            if (cueWakeups && active.isNotEmpty()) {
+                planCueWakeup()
+            }
         }
     }
 
@@ -315,103 +632,117 @@ class TimerService : Service() {
         }
     }
 
-    fun pauseTimer() {
-        _timerState.value = _timerState.value.copy(isPaused = true)
-        updateNotification()
+    private fun setPrimary(running: ActiveSession?) {
+        primary = running
+        _session.value = running?.session
+        _tick.value = running?.tick ?: TimerTick.IDLE
     }
 
-    fun resumeTimer() {
-        val state = _timerState.value
-        _timerState.value = state.copy(isPaused = false)
-        updateNotification()
+    private fun publishSessions() {
+        _sessions.value = active.map { it.session }
+    }
 
-        // Restart the appropriate countdown if job was cancelled
-        if (timerJob?.isActive != true) {
-            if (state.isInInitialCountdown) {
-                startInitialCountdown()
-            } else {
-                when (state.timerMode) {
-                    TimerMode.WEIGHTLIFT -> startWorkoutCountdown()
-                    TimerMode.CLIMBING -> startClimbingCountdown()
-                }
-            }
+    /** Drops [running] from the loop, leaving its flows on their last values. */
+    private fun removeSession(running: ActiveSession) {
+        engine.remove(running)
+        onSessionRemoved(running)
+    }
+
+    private fun onSessionRemoved(running: ActiveSession) {
+        if (running === primary) {
+            setPrimary(active.lastOrNull())
         }
+        publishSessions()
     }
 
-    fun stopTimer() {
-        timerJob?.cancel()
-        _timerState.value = TimerState()
-        stopForeground(STOP_FOREGROUND_REMOVE)
-        stopSelf()
+    /** Removes [running] and clears its flows, as when the user stops it. */
+    private fun discardSession(running: ActiveSession) {
+        removeSession(running)
+        tickFlow(running.session.timerId).value = TimerTick.IDLE
+        sessionFlow(running.session.timerId).value = null
     }
 
-    private fun createNotification(): Notification {
-        val state = _timerState.value
-        val contentIntent = PendingIntent.getActivity(
-            this,
-            0,
-            Intent(this, MainActivity::class.java).apply {
-                flags = Intent.FLAG_ACTIVITY_SINGLE_TOP
-                putExtra(EXTRA_TIMER_ID, state.timerId)
-            },
-            PendingIntent.FLAG_UPDATE_CURRENT or PendingIntent.FLAG_IMMUTABLE
-        )
+    /**
+     * Brings the wake lock, alarms and notification in line with the set of running
+     * sessions, and shuts the service down once none are left.
+     */
+    private fun onSessionsChanged() {
+        updateAudioStream()
+        if (active.isEmpty()) {
+            checkpoint.clear()
+            timerJob?.cancel()
+            cancelPauseTimeout()
+            cancelCueWakeup()
+            releaseWakeLock()
+            stopForeground(STOP_FOREGROUND_REMOVE)
+            stopSelf()
+            return
+        }
+        if (active.any { it.isTicking }) {
+            acquireWakeLock()
+            ensureTicking()
+        } else {
+            cancelCueWakeup()
+            releaseWakeLock()
+        }
+        checkpoint.write(active)
+        schedulePauseTimeout()
+        updateNotification()
+    }
 
-        val pauseResumeIntent = PendingIntent.getService(
-            this,
-            1,
-            Intent(this, TimerService::class.java).apply {
-                action = if (state.isPaused) ACTION_RESUME else ACTION_PAUSE
-            },
-            PendingIntent.FLAG_UPDATE_CURRENT or PendingIntent.FLAG_IMMUTABLE
-        )
+    private fun pause(timerId: Long?) {
+        var changed = false
+        for (running in active) {
+            if (timerId != null && running.session.timerId != timerId) continue
+            if (engine.pause(running)) changed = true
+        }
+        if (changed) onSessionsChanged()
+    }
 
-        val stopIntent = PendingIntent.getService(
-            this,
-            2,
-            Intent(this, TimerService::class.java).apply {
-                action = ACTION_STOP
-            },
-            PendingIntent.FLAG_UPDATE_CURRENT or PendingIntent.FLAG_IMMUTABLE
-        )
+    private fun resume(timerId: Long?) {
+        var changed = false
+        for (running in active) {
+            if (timerId != null && running.session.timerId != timerId) continue
+            if (engine.resume(running)) changed = true
+        }
+        if (changed) onSessionsChanged()
+    }
 
-        val contentText = when {
-            state.isInInitialCountdown -> {
-                if (state.isPaused) {
-                    "Paused • Get ready: ${state.initialCountdownRemaining}s"
-                } else {
-                    "Get ready: ${state.initialCountdownRemaining}s"
-                }
-            }
-            state.isPaused -> {
-                val remainingSeconds = state.totalSeconds - state.currentSecond
-                val timeDisplay = TimeUtils.formatTimeWithHours(remainingSeconds)
-                "Paused • $timeDisplay remaining"
-            }
-            state.timerMode == TimerMode.CLIMBING -> {
-                val phase = if (state.isHolding) "HOLD" else "REST"
-                val repInfo = "Rep ${state.currentRepetition + 1}/${state.totalRepetitions}"
-                val repetitionSeconds = state.holdSeconds + state.restSeconds
-                val phaseTime = if (state.isHolding) {
-                    state.holdSeconds - state.secondInRep
-                } else {
-                    repetitionSeconds - state.secondInRep
-                }
-                "$repInfo • $phase ${phaseTime}s"
-            }
-            else -> {
-                val remainingSeconds = state.totalSeconds - state.currentSecond
-                val timeDisplay = TimeUtils.formatTimeWithHours(remainingSeconds)
-                val minuteInfo = "Minute ${state.currentMinute + 1}/${state.totalMinutes}"
-                "$minuteInfo • $timeDisplay remaining"
-            }
+    private fun seek(timerId: Long?, move: (ActiveSession) -> Unit) {
+        val matching = active.filter { timerId == null || it.session.timerId == timerId }
+        if (matching.isEmpty()) return
+        matching.forEach(move)
+        // Sessions skipped past their end are gone; the rest have new deadlines and anchors
+        onSessionsChanged()
+    }
+
+    private fun adjust(timerId: Long, change: (ActiveSession) -> Boolean) {
+        val running = engine.find(timerId) ?: return
+        if (!change(running)) return
+        // The session now carries a new timeline and totals
+        sessionFlow(timerId).value = running.session
+        if (running === primary) {
+            _session.value = running.session
         }
+        publishSessions()
+        onSessionsChanged()
+    }
 
-        return NotificationCompat.Builder(this, WorkoutTimerApp.TIMER_CHANNEL_ID)
-            .setContentTitle(state.timerName)
-            .setContentText(contentText)
+    private fun stop(timerId: Long?) {
+        active.filter { timerId == null || it.session.timerId == timerId }
+            .forEach { discardSession(it) }
+        onSessionsChanged()
+    }
+
+    /**
+     * Builds the foreground notification. With one session the system renders a
+     * countdown to the end of its current segment, so the notification only has to be
+     * reposted when the segment changes or the session is paused, resumed or skipped.
+     * With several, each gets a line and the actions apply to all of them.
+     */
+    private fun createNotification(): Notification {
+        val builder = notificationBuilder ?: NotificationCompat.Builder(this, WorkoutTimerApp.TIMER_CHANNEL_ID)
             .setSmallIcon(R.drawable.ic_timer)
-            .setContentIntent(contentIntent)
             .setOngoing(true)
             .setSilent(true)
             .setOnlyAlertOnce(true)
@@ -419,19 +750,96 @@ class TimerService : Service() {
             .setCategory(NotificationCompat.CATEGORY_PROGRESS)
             .setForegroundServiceBehavior(NotificationCompat.FOREGROUND_SERVICE_IMMEDIATE)
             .setVisibility(NotificationCompat.VISIBILITY_PUBLIC)
+            .also { notificationBuilder = it }
+
+        val running = primary
+        val multiple = active.size > 1
+        val allPaused = active.none { it.isTicking }
+        val counting = !multiple && running != null && !allPaused
+
+        if (multiple) {
+            val style = NotificationCompat.InboxStyle()
+            active.forEach { style.addLine("${it.session.timerName} • ${statusText(it.session, it.tick)}") }
+            builder
+                .setContentTitle("${active.size} timers running")
+                .setContentText(active.joinToString(", ") { it.session.timerName })
+                .setStyle(style)
+        } else {
+            builder
+                .setContentTitle(running?.session?.timerName)
+                .setContentText(running?.let { statusText(it.session, it.tick) } ?: "")
+                .setStyle(null)
+        }
+
+        if (counting && running != null) {
+            // Chronometer runs on wall time; project the segment end from the monotonic anchor
+            val segmentEnd = running.clock.realtimeOf(running.timeline.segmentEnd(running.segmentCursor))
+            builder.setWhen(System.currentTimeMillis() + segmentEnd - SystemClock.elapsedRealtime())
+        }
+
+        builder
+            .setContentIntent(contentIntent(running?.session?.timerId ?: 0L))
+            .setShowWhen(counting)
+            .setUsesChronometer(counting)
+            .setChronometerCountDown(counting)
+            .clearActions()
             .addAction(
-                if (state.isPaused) R.drawable.ic_play else R.drawable.ic_pause,
-                if (state.isPaused) "Resume" else "Pause",
-                pauseResumeIntent
+                if (allPaused) R.drawable.ic_play else R.drawable.ic_pause,
+                when {
+                    multiple && allPaused -> "Resume all"
+                    multiple -> "Pause all"
+                    allPaused -> "Resume"
+                    else -> "Pause"
+                },
+                if (allPaused) resumeIntent else pauseIntent
             )
-            .addAction(R.drawable.ic_stop, "Stop", stopIntent)
+        // Only three actions fit; skipping back is left to the in-app controls
+        if (!multiple) {
+            builder.addAction(R.drawable.ic_skip_next, "Skip", skipForwardIntent)
+        }
+        return builder
+            .addAction(R.drawable.ic_stop, if (multiple) "Stop all" else "Stop", stopIntent)
             .build()
     }
 
+    private fun statusText(session: TimerSession, state: TimerTick): String = when {
+        state.isPaused -> {
+            val remaining = TimeUtils.formatTime(state.segmentRemaining)
+            "Paused • ${session.progressLabel(state)} • $remaining left"
+        }
+        state.isInInitialCountdown -> "Get ready"
+        session.plan.hasPhases -> "${session.progressLabel(state)} • ${CueTimeline.segmentLabel(state.segmentKind)}"
+        else -> session.progressLabel(state)
+    }
+
+    private fun contentIntent(timerId: Long): PendingIntent {
+        cachedContentIntent?.takeIf { contentIntentTimerId == timerId }?.let { return it }
+        return PendingIntent.getActivity(
+            this,
+            0,
+            Intent(this, MainActivity::class.java).apply {
+                flags = Intent.FLAG_ACTIVITY_SINGLE_TOP
+                putExtra(EXTRA_TIMER_ID, timerId)
+            },
+            PendingIntent.FLAG_UPDATE_CURRENT or PendingIntent.FLAG_IMMUTABLE
+        ).also {
+            cachedContentIntent = it
+            contentIntentTimerId = timerId
+        }
+    }
+
+    private fun serviceActionIntent(requestCode: Int, action: String): PendingIntent = PendingIntent.getService(
+        this,
+        requestCode,
+        Intent(this, TimerService::class.java).setAction(action),
+        PendingIntent.FLAG_UPDATE_CURRENT or PendingIntent.FLAG_IMMUTABLE
+    )
+
     private fun updateNotification() {
         val notification = createNotification()
         val notificationManager = getSystemService(NOTIFICATION_SERVICE) as android.app.NotificationManager
         notificationManager.notify(NOTIFICATION_ID, notification)
+        notificationPosts++
     }
 
     companion object {
@@ -439,6 +847,19 @@ class TimerService : Service() {
         const val ACTION_PAUSE = "com.steven.workouttimer.PAUSE"
         const val ACTION_RESUME = "com.steven.workouttimer.RESUME"
         const val ACTION_STOP = "com.steven.workouttimer.STOP"
+        const val ACTION_SKIP_FORWARD = "com.steven.workouttimer.SKIP_FORWARD"
+        const val ACTION_SKIP_BACK = "com.steven.workouttimer.SKIP_BACK"
+        private const val ACTION_PAUSE_TIMEOUT = "com.steven.workouttimer.PAUSE_TIMEOUT"
+        private const val ACTION_CUE_WAKEUP = "com.steven.workouttimer.CUE_WAKEUP"
+        private const val ACTION_DEBUG_BEEP_TIMING = "com.steven.workouttimer.DEBUG_BEEP_TIMING"
+        private const val NO_WAKEUP = -1L
+
+        // Gaps shorter than this keep the wake lock; the alarm fires this far before a cue
+        private const val CUE_SLEEP_THRESHOLD_MS = 5_000L
+        private const val CUE_WAKE_LEAD_MS = 1_500L
         const val EXTRA_TIMER_ID = "timer_id"
+        private const val EXTRA_ENABLED = "enabled"
+        private const val ENGINE_THREAD_NAME = "TimerEngine"
+        private const val CHECKPOINT_FILE = "timer_sessions.checkpoint"
     }
 }
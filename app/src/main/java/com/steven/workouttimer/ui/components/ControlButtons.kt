@@ -9,9 +9,12 @@ import androidx.compose.material.icons.Icons
 import androidx.compose.material.icons.filled.Fullscreen
 import androidx.compose.material.icons.filled.Pause
 import androidx.compose.material.icons.filled.PlayArrow
+import androidx.compose.material.icons.filled.SkipNext
+import androidx.compose.material.icons.filled.SkipPrevious
 import androidx.compose.material.icons.filled.Stop
 import androidx.compose.material3.FilledIconButton
 import androidx.compose.material3.Icon
+import androidx.compose.material3.IconButton
 import androidx.compose.material3.IconButtonDefaults
 import androidx.compose.material3.MaterialTheme
 import androidx.compose.runtime.Composable
@@ -30,7 +33,9 @@ fun ControlButtons(
     onStopClick: () -> Unit,
     onFullScreenClick: () -> Unit,
     modifier: Modifier = Modifier,
-    showFullScreenButton: Boolean = true
+    showFullScreenButton: Boolean = true,
+    onSkipBackClick: (() -> Unit)? = null,
+    onSkipForwardClick: (() -> Unit)? = null
 ) {
     val isGlassmorphic = LocalIsGlassmorphic.current
 
@@ -55,7 +60,17 @@ fun ControlButtons(
             )
         }
 
-        Spacer(modifier = Modifier.width(24.dp))
+        Spacer(modifier = Modifier.width(if (onSkipBackClick != null) 8.dp else 24.dp))
+
+        // Skip back: start of this minute or phase, or the previous one
+        if (onSkipBackClick != null) {
+            SkipButton(
+                onClick = onSkipBackClick,
+                forward = false,
+                tint = if (isGlassmorphic) Color.White else MaterialTheme.colorScheme.onSurface
+            )
+            Spacer(modifier = Modifier.width(8.dp))
+        }
 
         // Play/Pause button
         FilledIconButton(
@@ -73,8 +88,18 @@ fun ControlButtons(
             )
         }
 
+        // Skip forward: start of the next minute or phase
+        if (onSkipForwardClick != null) {
+            Spacer(modifier = Modifier.width(8.dp))
+            SkipButton(
+                onClick = onSkipForwardClick,
+                forward = true,
+                tint = if (isGlassmorphic) Color.White else MaterialTheme.colorScheme.onSurface
+            )
+        }
+
         if (showFullScreenButton) {
-            Spacer(modifier = Modifier.width(24.dp))
+            Spacer(modifier = Modifier.width(if (onSkipForwardClick != null) 8.dp else 24.dp))
 
             // Full screen button
             FilledIconButton(
@@ -94,3 +119,22 @@ fun ControlButtons(
         }
     }
 }
+
+@Composable
+private fun SkipButton(
+    onClick: () -> Unit,
+    forward: Boolean,
+    tint: Color
+) {
+    IconButton(
+        onClick = onClick,
+        modifier = Modifier.size(48.dp)
+    ) {
+        Icon(
+            imageVector = if (forward) Icons.Default.SkipNext else Icons.Default.SkipPrevious,
+            contentDescription = if (forward) "Skip forward" else "Skip back",
+            tint = tint,
+            modifier = Modifier.size(32.dp)
+        )
+    }
+}
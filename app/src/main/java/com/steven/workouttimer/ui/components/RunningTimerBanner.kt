@@ -41,7 +41,8 @@ import androidx.compose.ui.draw.clip
 import androidx.compose.ui.graphics.Color
 import androidx.compose.ui.text.font.FontWeight
 import androidx.compose.ui.unit.dp
-import com.steven.workouttimer.service.TimerState
+import com.steven.workouttimer.engine.TimerSession
+import com.steven.workouttimer.engine.TimerTick
 import com.steven.workouttimer.ui.theme.GlassBorder
 import com.steven.workouttimer.ui.theme.GlassCardBackground
 import com.steven.workouttimer.ui.theme.GlassPrimary
@@ -50,14 +51,15 @@ import com.steven.workouttimer.util.TimeUtils
 
 @Composable
 fun RunningTimerBanner(
-    timerState: TimerState,
+    session: TimerSession,
+    tick: TimerTick,
     onTap: () -> Unit,
     onPlayPause: () -> Unit,
     onStop: () -> Unit,
     onDelete: () -> Unit,
     modifier: Modifier = Modifier
 ) {
-    val remainingSeconds = timerState.totalSeconds - timerState.currentSecond
+    val remainingSeconds = session.totalSeconds - tick.currentSecond
     val isGlassmorphic = LocalIsGlassmorphic.current
 
     // Pulsing animation for the indicator
@@ -98,10 +100,10 @@ fun RunningTimerBanner(
                 Box(
                     modifier = Modifier
                         .size(14.dp)
-                        .alpha(if (timerState.isPaused) 0.5f else alpha)
+                        .alpha(if (tick.isPaused) 0.5f else alpha)
                         .clip(CircleShape)
                         .background(
-                            if (timerState.isPaused) {
+                            if (tick.isPaused) {
                                 if (isGlassmorphic) Color.White.copy(alpha = 0.5f) else MaterialTheme.colorScheme.outline
                             } else {
                                 if (isGlassmorphic) GlassPrimary else MaterialTheme.colorScheme.primary
@@ -113,16 +115,16 @@ fun RunningTimerBanner(
 
                 Column(modifier = Modifier.weight(1f)) {
                     Text(
-                        text = timerState.timerName,
+                        text = session.timerName,
                         style = MaterialTheme.typography.titleLarge,
                         fontWeight = FontWeight.SemiBold,
                         color = if (isGlassmorphic) Color.White else MaterialTheme.colorScheme.onPrimaryContainer
                     )
                     Text(
-                        text = if (timerState.isPaused) {
+                        text = if (tick.isPaused) {
                             "Paused • ${TimeUtils.formatTimeWithHours(remainingSeconds)} left"
                         } else {
-                            "Minute ${timerState.currentMinute + 1}/${timerState.totalMinutes} • ${TimeUtils.formatTimeWithHours(remainingSeconds)} left"
+                            "${session.progressLabel(tick)} • ${TimeUtils.formatTimeWithHours(remainingSeconds)} left"
                         },
                         style = MaterialTheme.typography.bodyMedium,
                         color = if (isGlassmorphic) Color.White.copy(alpha = 0.7f) else MaterialTheme.colorScheme.onPrimaryContainer.copy(alpha = 0.7f)
@@ -140,8 +142,8 @@ fun RunningTimerBanner(
                 // Play/Pause button
                 IconButton(onClick = onPlayPause) {
                     Icon(
-                        imageVector = if (timerState.isPaused) Icons.Default.PlayArrow else Icons.Default.Pause,
-                        contentDescription = if (timerState.isPaused) "Resume" else "Pause",
+                        imageVector = if (tick.isPaused) Icons.Default.PlayArrow else Icons.Default.Pause,
+                        contentDescription = if (tick.isPaused) "Resume" else "Pause",
                         tint = if (isGlassmorphic) GlassPrimary else MaterialTheme.colorScheme.onPrimaryContainer,
                         modifier = Modifier.size(28.dp)
                     )
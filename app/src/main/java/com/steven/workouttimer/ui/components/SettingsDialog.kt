@@ -7,9 +7,12 @@ import androidx.compose.foundation.layout.Spacer
 import androidx.compose.foundation.layout.fillMaxWidth
 import androidx.compose.foundation.layout.height
 import androidx.compose.foundation.layout.padding
+import androidx.compose.foundation.rememberScrollState
+import androidx.compose.foundation.verticalScroll
 import androidx.compose.material3.AlertDialog
 import androidx.compose.material3.MaterialTheme
 import androidx.compose.material3.RadioButton
+import androidx.compose.material3.Switch
 import androidx.compose.material3.Text
 import androidx.compose.material3.TextButton
 import androidx.compose.runtime.Composable
@@ -17,6 +20,7 @@ import androidx.compose.ui.Alignment
 import androidx.compose.ui.Modifier
 import androidx.compose.ui.unit.dp
 import com.steven.workouttimer.data.preferences.ThemeMode
+import com.steven.workouttimer.data.preferences.TimerPreferences
 import com.steven.workouttimer.ui.theme.LocalIsGlassmorphic
 import com.steven.workouttimer.ui.theme.GlassDialogBackground
 
@@ -24,6 +28,10 @@ import com.steven.workouttimer.ui.theme.GlassDialogBackground
 fun SettingsDialog(
     currentThemeMode: ThemeMode,
     onThemeModeChange: (ThemeMode) -> Unit,
+    pauseAutoStopMinutes: Int,
+    onPauseAutoStopMinutesChange: (Int) -> Unit,
+    cueAlarmWakeups: Boolean,
+    onCueAlarmWakeupsChange: (Boolean) -> Unit,
     onDismiss: () -> Unit
 ) {
     val isGlassmorphic = LocalIsGlassmorphic.current
@@ -33,7 +41,7 @@ fun SettingsDialog(
         containerColor = if (isGlassmorphic) GlassDialogBackground else MaterialTheme.colorScheme.surface,
         title = { Text("Settings") },
         text = {
-            Column {
+            Column(modifier = Modifier.verticalScroll(rememberScrollState())) {
                 Text(
                     text = "Theme",
                     style = MaterialTheme.typography.titleMedium
@@ -64,6 +72,57 @@ fun SettingsDialog(
                         )
                     }
                 }
+
+                Spacer(modifier = Modifier.height(16.dp))
+                Text(
+                    text = "Stop paused timer after",
+                    style = MaterialTheme.typography.titleMedium
+                )
+                Spacer(modifier = Modifier.height(8.dp))
+
+                TimerPreferences.PAUSE_AUTO_STOP_OPTIONS.forEach { minutes ->
+                    Row(
+                        modifier = Modifier
+                            .fillMaxWidth()
+                            .clickable { onPauseAutoStopMinutesChange(minutes) }
+                            .padding(vertical = 8.dp),
+                        verticalAlignment = Alignment.CenterVertically
+                    ) {
+                        RadioButton(
+                            selected = pauseAutoStopMinutes == minutes,
+                            onClick = { onPauseAutoStopMinutesChange(minutes) }
+                        )
+                        Text(
+                            text = if (minutes == 0) "Never" else "$minutes minutes",
+                            style = MaterialTheme.typography.bodyLarge,
+                            modifier = Modifier.padding(start = 8.dp)
+                        )
+                    }
+                }
+
+                Spacer(modifier = Modifier.height(16.dp))
+                Row(
+                    modifier = Modifier
+                        .fillMaxWidth()
+                        .clickable { onCueAlarmWakeupsChange(!cueAlarmWakeups) }
+                        .padding(vertical = 8.dp),
+                    verticalAlignment = Alignment.CenterVertically
+                ) {
+                    Column(modifier = Modifier.weight(1f)) {
+                        Text(
+                            text = "Battery saver",
+                            style = MaterialTheme.typography.titleMedium
+                        )
+                        Text(
+                            text = "Let the phone sleep between cues",
+                            style = MaterialTheme.typography.bodySmall
+                        )
+                    }
+                    Switch(
+                        checked = cueAlarmWakeups,
+                        onCheckedChange = onCueAlarmWakeupsChange
+                    )
+                }
             }
         },
         confirmButton = {
@@ -23,6 +23,7 @@ import androidx.compose.material3.IconButton
 import androidx.compose.material3.MaterialTheme
 import androidx.compose.material3.Text
 import androidx.compose.runtime.Composable
+import androidx.compose.runtime.remember
 import androidx.compose.ui.Alignment
 import androidx.compose.ui.Modifier
 import androidx.compose.ui.graphics.Color
@@ -42,6 +43,7 @@ fun TimerCard(
     modifier: Modifier = Modifier
 ) {
     val isGlassmorphic = LocalIsGlassmorphic.current
+    val workoutMinutes = remember(timer) { (timer.workoutPlan().workoutSeconds + 59) / 60 }
 
     Card(
         modifier = modifier.fillMaxWidth(),
@@ -74,7 +76,7 @@ fun TimerCard(
                 verticalAlignment = Alignment.CenterVertically
             ) {
                 Text(
-                    text = TimeUtils.formatMinutes(timer.totalMinutes),
+                    text = TimeUtils.formatMinutes(workoutMinutes),
                     style = MaterialTheme.typography.bodyLarge,
                     color = if (isGlassmorphic) Color.White.copy(alpha = 0.8f) else MaterialTheme.colorScheme.onSurfaceVariant
                 )
@@ -13,7 +13,7 @@ import androidx.compose.ui.graphics.Color
 import androidx.compose.ui.text.font.FontWeight
 import androidx.compose.ui.unit.dp
 import androidx.compose.ui.unit.sp
-import com.steven.workouttimer.data.db.TimerMode
+import com.steven.workouttimer.engine.CueTimeline
 import com.steven.workouttimer.ui.theme.LocalIsGlassmorphic
 import com.steven.workouttimer.util.TimeUtils
 
@@ -21,20 +21,19 @@ import com.steven.workouttimer.util.TimeUtils
 fun TimerDisplay(
     currentSecond: Int,
     totalSeconds: Int,
-    currentMinute: Int,
-    totalMinutes: Int,
+    currentRound: Int,
+    totalRounds: Int,
+    // "Minute", "Rep" or "Round", from the session's TimerMode
+    roundLabel: String,
+    // Whether a round of the plan has phases to name, such as hold and rest
+    hasPhases: Boolean,
     modifier: Modifier = Modifier,
     isFullScreen: Boolean = false,
     isInInitialCountdown: Boolean = false,
     initialCountdownRemaining: Int = 0,
-    // Climbing mode parameters
-    timerMode: TimerMode = TimerMode.WEIGHTLIFT,
-    currentRepetition: Int = 0,
-    totalRepetitions: Int = 0,
-    secondInRep: Int = 0,
-    holdSeconds: Int = 0,
-    restSeconds: Int = 0,
-    isHolding: Boolean = true
+    // Current segment of the session's CueTimeline
+    segmentKind: Int = CueTimeline.SEGMENT_WORK,
+    segmentRemaining: Int = 0
 ) {
     if (isInInitialCountdown) {
         InitialCountdownDisplay(
@@ -42,14 +41,13 @@ fun TimerDisplay(
             modifier = modifier,
             isFullScreen = isFullScreen
         )
-    } else if (timerMode == TimerMode.CLIMBING) {
-        ClimbingTimerDisplay(
-            currentRepetition = currentRepetition,
-            totalRepetitions = totalRepetitions,
-            secondInRep = secondInRep,
-            holdSeconds = holdSeconds,
-            restSeconds = restSeconds,
-            isHolding = isHolding,
+    } else if (hasPhases) {
+        PhasedTimerDisplay(
+            currentRound = currentRound,
+            totalRounds = totalRounds,
+            roundLabel = roundLabel,
+            segmentKind = segmentKind,
+            secondsRemaining = segmentRemaining,
             totalSeconds = totalSeconds,
             currentSecond = currentSecond,
             modifier = modifier,
@@ -59,8 +57,10 @@ fun TimerDisplay(
         WorkoutTimerDisplay(
             currentSecond = currentSecond,
             totalSeconds = totalSeconds,
-            currentMinute = currentMinute,
-            totalMinutes = totalMinutes,
+            currentRound = currentRound,
+            totalRounds = totalRounds,
+            roundLabel = roundLabel,
+            secondsRemainingInRound = segmentRemaining,
             modifier = modifier,
             isFullScreen = isFullScreen
         )
@@ -120,16 +120,17 @@ private fun InitialCountdownDisplay(
 private fun WorkoutTimerDisplay(
     currentSecond: Int,
     totalSeconds: Int,
-    currentMinute: Int,
-    totalMinutes: Int,
+    currentRound: Int,
+    totalRounds: Int,
+    roundLabel: String,
+    secondsRemainingInRound: Int,
     modifier: Modifier = Modifier,
     isFullScreen: Boolean = false
 ) {
     val isGlassmorphic = LocalIsGlassmorphic.current
     val textColor = if (isGlassmorphic) Color.White else MaterialTheme.colorScheme.onBackground
 
-    val secondsInCurrentMinute = 60 - (currentSecond % 60)
-    val displaySeconds = if (currentSecond % 60 == 0) 60 else secondsInCurrentMinute
+    val displaySeconds = secondsRemainingInRound
 
     val timerColor = when {
         displaySeconds <= 3 -> Color(0xFFF44336) // Red
@@ -143,9 +144,9 @@ private fun WorkoutTimerDisplay(
         horizontalAlignment = Alignment.CenterHorizontally,
         verticalArrangement = Arrangement.Center
     ) {
-        // Current minute indicator
+        // Current round indicator
         Text(
-            text = "Minute ${currentMinute + 1} of $totalMinutes",
+            text = "$roundLabel ${currentRound + 1} of $totalRounds",
             style = if (isFullScreen) {
                 MaterialTheme.typography.headlineMedium
             } else {
@@ -156,9 +157,13 @@ private fun WorkoutTimerDisplay(
 
         Spacer(modifier = Modifier.height(if (isFullScreen) 24.dp else 16.dp))
 
-        // Main timer display - seconds remaining in current minute
+        // Main timer display - seconds remaining in current round
         Text(
-            text = String.format(":%02d", if (displaySeconds == 60) 0 else displaySeconds),
+            text = if (displaySeconds > 60) {
+                TimeUtils.formatTime(displaySeconds)
+            } else {
+                String.format(":%02d", if (displaySeconds == 60) 0 else displaySeconds)
+            },
             style = MaterialTheme.typography.displayLarge.copy(
                 fontSize = if (isFullScreen) 180.sp else 96.sp,
                 fontWeight = FontWeight.Bold
@@ -182,13 +187,12 @@ private fun WorkoutTimerDisplay(
 }
 
 @Composable
-private fun ClimbingTimerDisplay(
-    currentRepetition: Int,
-    totalRepetitions: Int,
-    secondInRep: Int,
-    holdSeconds: Int,
-    restSeconds: Int,
-    isHolding: Boolean,
+private fun PhasedTimerDisplay(
+    currentRound: Int,
+    totalRounds: Int,
+    roundLabel: String,
+    segmentKind: Int,
+    secondsRemaining: Int,
     totalSeconds: Int,
     currentSecond: Int,
     modifier: Modifier = Modifier,
@@ -196,13 +200,10 @@ private fun ClimbingTimerDisplay(
 ) {
     val isGlassmorphic = LocalIsGlassmorphic.current
     val textColor = if (isGlassmorphic) Color.White else MaterialTheme.colorScheme.onBackground
-
-    val timeInPhase = if (isHolding) secondInRep else secondInRep - holdSeconds
-    val phaseLength = if (isHolding) holdSeconds else restSeconds
-    val secondsRemaining = phaseLength - timeInPhase
+    val isWorking = segmentKind != CueTimeline.SEGMENT_REST
 
     val timerColor = when {
-        isHolding -> Color(0xFF4CAF50) // Green for hold
+        isWorking -> Color(0xFF4CAF50) // Green for hold or work
         else -> Color(0xFF2196F3) // Blue for rest
     }
 
@@ -217,9 +218,9 @@ private fun ClimbingTimerDisplay(
         horizontalAlignment = Alignment.CenterHorizontally,
         verticalArrangement = Arrangement.Center
     ) {
-        // Current rep indicator
+        // Current round indicator
         Text(
-            text = "Rep ${currentRepetition + 1} of $totalRepetitions",
+            text = "$roundLabel ${currentRound + 1} of $totalRounds",
             style = if (isFullScreen) {
                 MaterialTheme.typography.headlineMedium
             } else {
@@ -232,7 +233,7 @@ private fun ClimbingTimerDisplay(
 
         // Phase indicator
         Text(
-            text = if (isHolding) "HOLD" else "REST",
+            text = CueTimeline.segmentLabel(segmentKind),
             style = if (isFullScreen) {
                 MaterialTheme.typography.headlineLarge
             } else {
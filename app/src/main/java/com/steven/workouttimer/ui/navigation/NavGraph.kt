@@ -21,8 +21,9 @@ import androidx.navigation.compose.NavHost
 import androidx.navigation.compose.composable
 import androidx.navigation.navArgument
 import com.steven.workouttimer.WorkoutTimerApp
+import com.steven.workouttimer.engine.TimerSession
+import com.steven.workouttimer.engine.TimerTick
 import com.steven.workouttimer.service.TimerService
-import com.steven.workouttimer.service.TimerState
 import com.steven.workouttimer.ui.screens.create.CreateTimerScreen
 import com.steven.workouttimer.ui.screens.create.CreateTimerViewModel
 import com.steven.workouttimer.ui.screens.fullscreen.FullScreenTimerScreen
@@ -55,12 +56,17 @@ fun NavGraph(
     val repository = app.container.timerRepository
     val themePreferences = app.container.themePreferences
     val currentThemeMode by themePreferences.themeMode.collectAsState()
+    val timerPreferences = app.container.timerPreferences
+    val pauseAutoStopMinutes by timerPreferences.pauseAutoStopMinutes.collectAsState()
+    val cueAlarmWakeups by timerPreferences.cueAlarmWakeups.collectAsState()
 
     // Global timer service binding for showing running timer on home screen
     var globalTimerService by remember { mutableStateOf<TimerService?>(null) }
     var globalBound by remember { mutableStateOf(false) }
-    val runningTimerState by globalTimerService?.timerState?.collectAsState()
-        ?: remember { mutableStateOf(TimerState()) }
+    val runningSession by globalTimerService?.session?.collectAsState()
+        ?: remember { mutableStateOf<TimerSession?>(null) }
+    val runningTick by globalTimerService?.tick?.collectAsState()
+        ?: remember { mutableStateOf(TimerTick.IDLE) }
 
     val globalConnection = remember {
         object : ServiceConnection {
@@ -114,24 +120,25 @@ fun NavGraph(
                 viewModel = viewModel,
                 currentThemeMode = currentThemeMode,
                 onThemeModeChange = { themePreferences.setThemeMode(it) },
-                runningTimerState = if (runningTimerState.isRunning) runningTimerState else null,
+                pauseAutoStopMinutes = pauseAutoStopMinutes,
+                onPauseAutoStopMinutesChange = { timerPreferences.setPauseAutoStopMinutes(it) },
+                cueAlarmWakeups = cueAlarmWakeups,
+                onCueAlarmWakeupsChange = { timerPreferences.setCueAlarmWakeups(it) },
+                runningSession = if (runningTick.isRunning) runningSession else null,
+                runningTick = runningTick,
                 onRunningTimerTap = {
-                    navController.navigate(Screen.Timer.createRoute(runningTimerState.timerId))
+                    runningSession?.let { session ->
+                        navController.navigate(Screen.Timer.createRoute(session.timerId))
+                    }
                 },
                 onRunningTimerPlayPause = {
-                    globalTimerService?.let { service ->
-                        if (service.timerState.value.isPaused) {
-                            service.resumeTimer()
-                        } else {
-                            service.pauseTimer()
-                        }
-                    }
+                    runningSession?.let { globalTimerService?.togglePauseTimer(it.timerId) }
                 },
                 onRunningTimerStop = {
-                    globalTimerService?.stopTimer()
+                    runningSession?.let { globalTimerService?.stopTimer(it.timerId) }
                 },
                 onRunningTimerDelete = {
-                    globalTimerService?.stopTimer()
+                    runningSession?.let { globalTimerService?.stopTimer(it.timerId) }
                 },
                 onCreateTimer = {
                     navController.navigate(Screen.CreateTimer.createRoute())
@@ -229,17 +236,14 @@ fun NavGraph(
 
             timerService?.let { service ->
                 FullScreenTimerScreen(
-                    timerStateFlow = service.timerState,
+                    sessionFlow = service.sessionOf(timerId),
+                    tickFlow = service.tickOf(timerId),
                     onExitFullScreen = { navController.popBackStack() },
-                    onPlayPause = {
-                        if (service.timerState.value.isPaused) {
-                            service.resumeTimer()
-                        } else {
-                            service.pauseTimer()
-                        }
-                    },
+                    onPlayPause = { service.togglePauseTimer(timerId) },
+                    onSkipBack = { service.skipBack(timerId) },
+                    onSkipForward = { service.skipForward(timerId) },
                     onStop = {
-                        service.stopTimer()
+                        service.stopTimer(timerId)
                         navController.popBackStack(Screen.Home.route, inclusive = false)
                     }
                 )
@@ -14,6 +14,7 @@ import androidx.compose.foundation.verticalScroll
 import androidx.compose.material.icons.Icons
 import androidx.compose.material.icons.filled.ArrowBack
 import androidx.compose.material.icons.filled.Check
+import androidx.compose.material.icons.filled.Close
 import androidx.compose.material.icons.filled.Delete
 import androidx.compose.material3.AlertDialog
 import androidx.compose.material3.TextButton
@@ -43,8 +44,10 @@ import androidx.compose.ui.Alignment
 import androidx.compose.ui.Modifier
 import androidx.compose.ui.graphics.Color
 import androidx.compose.ui.unit.dp
-import com.steven.workouttimer.data.db.AudioType
-import com.steven.workouttimer.data.db.TimerMode
+import com.steven.workouttimer.engine.AudioType
+import com.steven.workouttimer.engine.CueTimeline
+import com.steven.workouttimer.engine.TimerMode
+import com.steven.workouttimer.engine.WorkoutPlan
 import com.steven.workouttimer.ui.theme.GlassDialogBackground
 import com.steven.workouttimer.ui.theme.GlassSurface
 import com.steven.workouttimer.ui.theme.LocalIsGlassmorphic
@@ -131,10 +134,7 @@ fun CreateTimerScreen(
                     onExpandedChange = { modeExpanded = !modeExpanded }
                 ) {
                     OutlinedTextField(
-                        value = when (uiState.timerMode) {
-                            TimerMode.WEIGHTLIFT -> "Weightlift Mode"
-                            TimerMode.CLIMBING -> "Climbing Mode"
-                        },
+                        value = modeName(uiState.timerMode),
                         onValueChange = {},
                         readOnly = true,
                         trailingIcon = { ExposedDropdownMenuDefaults.TrailingIcon(expanded = modeExpanded) },
@@ -147,20 +147,15 @@ fun CreateTimerScreen(
                         onDismissRequest = { modeExpanded = false },
                         modifier = if (isGlassmorphic) Modifier.background(GlassDialogBackground) else Modifier
                     ) {
-                        DropdownMenuItem(
-                            text = { Text("Weightlift Mode") },
-                            onClick = {
-                                viewModel.updateTimerMode(TimerMode.WEIGHTLIFT)
-                                modeExpanded = false
-                            }
-                        )
-                        DropdownMenuItem(
-                            text = { Text("Climbing Mode") },
-                            onClick = {
-                                viewModel.updateTimerMode(TimerMode.CLIMBING)
-                                modeExpanded = false
-                            }
-                        )
+                        TimerMode.entries.forEach { mode ->
+                            DropdownMenuItem(
+                                text = { Text(modeName(mode)) },
+                                onClick = {
+                                    viewModel.updateTimerMode(mode)
+                                    modeExpanded = false
+                                }
+                            )
+                        }
                     }
                 }
             }
@@ -175,6 +170,9 @@ fun CreateTimerScreen(
                         when (uiState.timerMode) {
                             TimerMode.WEIGHTLIFT -> "e.g., Morning EMOM"
                             TimerMode.CLIMBING -> "e.g., Hangboard Session"
+                            TimerMode.TABATA -> "e.g., Tabata Sprints"
+                            TimerMode.EMOM -> "e.g., E90S Cleans"
+                            TimerMode.CUSTOM -> "e.g., Pyramid Intervals"
                         }
                     )
                 },
@@ -185,195 +183,257 @@ fun CreateTimerScreen(
             )
 
             // Mode-specific options
-            if (uiState.timerMode == TimerMode.WEIGHTLIFT) {
-                // Duration (Weightlift mode)
-                Column {
-                    Text(
-                        text = "Duration",
-                        style = MaterialTheme.typography.titleMedium,
-                        color = textColor
-                    )
-                    Spacer(modifier = Modifier.height(8.dp))
+            when (uiState.timerMode) {
+                TimerMode.WEIGHTLIFT -> {
+                    // Duration (Weightlift mode)
+                    Column {
+                        Text(
+                            text = "Duration",
+                            style = MaterialTheme.typography.titleMedium,
+                            color = textColor
+                        )
+                        Spacer(modifier = Modifier.height(8.dp))
 
-                    var expanded by remember { mutableStateOf(false) }
-                    val minuteOptions = (2..120).toList()
+                        var expanded by remember { mutableStateOf(false) }
+                        val minuteOptions = (2..120).toList()
 
-                    ExposedDropdownMenuBox(
-                        expanded = expanded,
-                        onExpandedChange = { expanded = !expanded }
-                    ) {
-                        OutlinedTextField(
-                            value = TimeUtils.formatMinutes(uiState.totalMinutes),
-                            onValueChange = {},
-                            readOnly = true,
-                            trailingIcon = { ExposedDropdownMenuDefaults.TrailingIcon(expanded = expanded) },
-                            modifier = Modifier
-                                .menuAnchor()
-                                .fillMaxWidth()
-                        )
-                        ExposedDropdownMenu(
+                        ExposedDropdownMenuBox(
                             expanded = expanded,
-                            onDismissRequest = { expanded = false },
-                            modifier = if (isGlassmorphic) Modifier.background(GlassDialogBackground) else Modifier
+                            onExpandedChange = { expanded = !expanded }
                         ) {
-                            minuteOptions.forEach { minutes ->
-                                DropdownMenuItem(
-                                    text = { Text(TimeUtils.formatMinutes(minutes)) },
-                                    onClick = {
-                                        viewModel.updateTotalMinutes(minutes)
-                                        expanded = false
-                                    }
-                                )
+                            OutlinedTextField(
+                                value = TimeUtils.formatMinutes(uiState.totalMinutes),
+                                onValueChange = {},
+                                readOnly = true,
+                                trailingIcon = { ExposedDropdownMenuDefaults.TrailingIcon(expanded = expanded) },
+                                modifier = Modifier
+                                    .menuAnchor()
+                                    .fillMaxWidth()
+                            )
+                            ExposedDropdownMenu(
+                                expanded = expanded,
+                                onDismissRequest = { expanded = false },
+                                modifier = if (isGlassmorphic) Modifier.background(GlassDialogBackground) else Modifier
+                            ) {
+                                minuteOptions.forEach { minutes ->
+                                    DropdownMenuItem(
+                                        text = { Text(TimeUtils.formatMinutes(minutes)) },
+                                        onClick = {
+                                            viewModel.updateTotalMinutes(minutes)
+                                            expanded = false
+                                        }
+                                    )
+                                }
                             }
                         }
                     }
                 }
-            } else {
-                // Climbing mode options
-
-                // Hold Length
-                Column {
-                    Text(
-                        text = "Hold Length",
-                        style = MaterialTheme.typography.titleMedium,
-                        color = textColor
-                    )
-                    Text(
-                        text = "How long to hold each rep",
-                        style = MaterialTheme.typography.bodySmall,
-                        color = subtextColor
-                    )
-                    Spacer(modifier = Modifier.height(8.dp))
+                TimerMode.CLIMBING -> {
+                    // Hold Length
+                    Column {
+                        Text(
+                            text = "Hold Length",
+                            style = MaterialTheme.typography.titleMedium,
+                            color = textColor
+                        )
+                        Text(
+                            text = "How long to hold each rep",
+                            style = MaterialTheme.typography.bodySmall,
+                            color = subtextColor
+                        )
+                        Spacer(modifier = Modifier.height(8.dp))
 
-                    var holdExpanded by remember { mutableStateOf(false) }
-                    val holdOptions = (1..60).toList()
+                        var holdExpanded by remember { mutableStateOf(false) }
+                        val holdOptions = (1..60).toList()
 
-                    ExposedDropdownMenuBox(
-                        expanded = holdExpanded,
-                        onExpandedChange = { holdExpanded = !holdExpanded }
-                    ) {
-                        OutlinedTextField(
-                            value = "${uiState.holdSeconds} seconds",
-                            onValueChange = {},
-                            readOnly = true,
-                            trailingIcon = { ExposedDropdownMenuDefaults.TrailingIcon(expanded = holdExpanded) },
-                            modifier = Modifier
-                                .menuAnchor()
-                                .fillMaxWidth()
-                        )
-                        ExposedDropdownMenu(
+                        ExposedDropdownMenuBox(
                             expanded = holdExpanded,
-                            onDismissRequest = { holdExpanded = false },
-                            modifier = if (isGlassmorphic) Modifier.background(GlassDialogBackground) else Modifier
+                            onExpandedChange = { holdExpanded = !holdExpanded }
                         ) {
-                            holdOptions.forEach { seconds ->
-                                DropdownMenuItem(
-                                    text = { Text("$seconds seconds") },
-                                    onClick = {
-                                        viewModel.updateHoldSeconds(seconds)
-                                        holdExpanded = false
-                                    }
-                                )
+                            OutlinedTextField(
+                                value = "${uiState.holdSeconds} seconds",
+                                onValueChange = {},
+                                readOnly = true,
+                                trailingIcon = { ExposedDropdownMenuDefaults.TrailingIcon(expanded = holdExpanded) },
+                                modifier = Modifier
+                                    .menuAnchor()
+                                    .fillMaxWidth()
+                            )
+                            ExposedDropdownMenu(
+                                expanded = holdExpanded,
+                                onDismissRequest = { holdExpanded = false },
+                                modifier = if (isGlassmorphic) Modifier.background(GlassDialogBackground) else Modifier
+                            ) {
+                                holdOptions.forEach { seconds ->
+                                    DropdownMenuItem(
+                                        text = { Text("$seconds seconds") },
+                                        onClick = {
+                                            viewModel.updateHoldSeconds(seconds)
+                                            holdExpanded = false
+                                        }
+                                    )
+                                }
                             }
                         }
                     }
-                }
 
-                // Break Length
-                Column {
-                    Text(
-                        text = "Break Length",
-                        style = MaterialTheme.typography.titleMedium,
-                        color = textColor
-                    )
-                    Text(
-                        text = "Rest time between holds",
-                        style = MaterialTheme.typography.bodySmall,
-                        color = subtextColor
-                    )
-                    Spacer(modifier = Modifier.height(8.dp))
+                    // Break Length
+                    Column {
+                        Text(
+                            text = "Break Length",
+                            style = MaterialTheme.typography.titleMedium,
+                            color = textColor
+                        )
+                        Text(
+                            text = "Rest time between holds",
+                            style = MaterialTheme.typography.bodySmall,
+                            color = subtextColor
+                        )
+                        Spacer(modifier = Modifier.height(8.dp))
 
-                    var restExpanded by remember { mutableStateOf(false) }
-                    val restOptions = (1..60).toList()
+                        var restExpanded by remember { mutableStateOf(false) }
+                        val restOptions = (1..60).toList()
 
-                    ExposedDropdownMenuBox(
-                        expanded = restExpanded,
-                        onExpandedChange = { restExpanded = !restExpanded }
-                    ) {
-                        OutlinedTextField(
-                            value = "${uiState.restSeconds} seconds",
-                            onValueChange = {},
-                            readOnly = true,
-                            trailingIcon = { ExposedDropdownMenuDefaults.TrailingIcon(expanded = restExpanded) },
-                            modifier = Modifier
-                                .menuAnchor()
-                                .fillMaxWidth()
-                        )
-                        ExposedDropdownMenu(
+                        ExposedDropdownMenuBox(
                             expanded = restExpanded,
-                            onDismissRequest = { restExpanded = false },
-                            modifier = if (isGlassmorphic) Modifier.background(GlassDialogBackground) else Modifier
+                            onExpandedChange = { restExpanded = !restExpanded }
                         ) {
-                            restOptions.forEach { seconds ->
-                                DropdownMenuItem(
-                                    text = { Text("$seconds seconds") },
-                                    onClick = {
-                                        viewModel.updateRestSeconds(seconds)
-                                        restExpanded = false
-                                    }
-                                )
+                            OutlinedTextField(
+                                value = "${uiState.restSeconds} seconds",
+                                onValueChange = {},
+                                readOnly = true,
+                                trailingIcon = { ExposedDropdownMenuDefaults.TrailingIcon(expanded = restExpanded) },
+                                modifier = Modifier
+                                    .menuAnchor()
+                                    .fillMaxWidth()
+                            )
+                            ExposedDropdownMenu(
+                                expanded = restExpanded,
+                                onDismissRequest = { restExpanded = false },
+                                modifier = if (isGlassmorphic) Modifier.background(GlassDialogBackground) else Modifier
+                            ) {
+                                restOptions.forEach { seconds ->
+                                    DropdownMenuItem(
+                                        text = { Text("$seconds seconds") },
+                                        onClick = {
+                                            viewModel.updateRestSeconds(seconds)
+                                            restExpanded = false
+                                        }
+                                    )
+                                }
                             }
                         }
                     }
-                }
 
-                // Total Repetitions
-                Column {
-                    Text(
-                        text = "Total Repetitions",
-                        style = MaterialTheme.typography.titleMedium,
-                        color = textColor
-                    )
-                    Text(
-                        text = "Number of reps to complete",
-                        style = MaterialTheme.typography.bodySmall,
-                        color = subtextColor
-                    )
-                    Spacer(modifier = Modifier.height(8.dp))
+                    // Total Repetitions
+                    Column {
+                        Text(
+                            text = "Total Repetitions",
+                            style = MaterialTheme.typography.titleMedium,
+                            color = textColor
+                        )
+                        Text(
+                            text = "Number of reps to complete",
+                            style = MaterialTheme.typography.bodySmall,
+                            color = subtextColor
+                        )
+                        Spacer(modifier = Modifier.height(8.dp))
 
-                    var repsExpanded by remember { mutableStateOf(false) }
-                    val repsOptions = (1..50).toList()
+                        var repsExpanded by remember { mutableStateOf(false) }
+                        val repsOptions = (1..50).toList()
 
-                    ExposedDropdownMenuBox(
-                        expanded = repsExpanded,
-                        onExpandedChange = { repsExpanded = !repsExpanded }
-                    ) {
-                        OutlinedTextField(
-                            value = "${uiState.totalRepetitions} reps",
-                            onValueChange = {},
-                            readOnly = true,
-                            trailingIcon = { ExposedDropdownMenuDefaults.TrailingIcon(expanded = repsExpanded) },
-                            modifier = Modifier
-                                .menuAnchor()
-                                .fillMaxWidth()
-                        )
-                        ExposedDropdownMenu(
+                        ExposedDropdownMenuBox(
                             expanded = repsExpanded,
-                            onDismissRequest = { repsExpanded = false },
-                            modifier = if (isGlassmorphic) Modifier.background(GlassDialogBackground) else Modifier
+                            onExpandedChange = { repsExpanded = !repsExpanded }
                         ) {
-                            repsOptions.forEach { reps ->
-                                DropdownMenuItem(
-                                    text = { Text("$reps reps") },
-                                    onClick = {
-                                        viewModel.updateTotalRepetitions(reps)
-                                        repsExpanded = false
-                                    }
-                                )
+                            OutlinedTextField(
+                                value = "${uiState.totalRepetitions} reps",
+                                onValueChange = {},
+                                readOnly = true,
+                                trailingIcon = { ExposedDropdownMenuDefaults.TrailingIcon(expanded = repsExpanded) },
+                                modifier = Modifier
+                                    .menuAnchor()
+                                    .fillMaxWidth()
+                            )
+                            ExposedDropdownMenu(
+                                expanded = repsExpanded,
+                                onDismissRequest = { repsExpanded = false },
+                                modifier = if (isGlassmorphic) Modifier.background(GlassDialogBackground) else Modifier
+                            ) {
+                                repsOptions.forEach { reps ->
+                                    DropdownMenuItem(
+                                        text = { Text("$reps reps") },
+                                        onClick = {
+                                            viewModel.updateTotalRepetitions(reps)
+                                            repsExpanded = false
+                                        }
+                                    )
+                                }
                             }
                         }
                     }
                 }
+                TimerMode.TABATA -> {
+                    OptionDropdown(
+                        title = "Work Length",
+                        subtitle = "How long each work interval lasts",
+                        value = uiState.holdSeconds,
+                        options = (5..60 step 5).toList(),
+                        optionLabel = { "$it seconds" },
+                        onSelect = { viewModel.updateHoldSeconds(it) }
+                    )
+                    OptionDropdown(
+                        title = "Rest Length",
+                        subtitle = "Rest between work intervals",
+                        value = uiState.restSeconds,
+                        options = (5..60 step 5).toList(),
+                        optionLabel = { "$it seconds" },
+                        onSelect = { viewModel.updateRestSeconds(it) }
+                    )
+                    OptionDropdown(
+                        title = "Rounds",
+                        subtitle = "Work and rest pairs to complete",
+                        value = uiState.totalRepetitions,
+                        options = (1..30).toList(),
+                        optionLabel = { "$it rounds" },
+                        onSelect = { viewModel.updateTotalRepetitions(it) }
+                    )
+                }
+                TimerMode.EMOM -> {
+                    OptionDropdown(
+                        title = "Interval",
+                        subtitle = "A new round starts this often",
+                        value = uiState.holdSeconds,
+                        options = (30..300 step 15).toList(),
+                        optionLabel = { TimeUtils.formatTime(it) },
+                        onSelect = { viewModel.updateIntervalSeconds(it) }
+                    )
+                    OptionDropdown(
+                        title = "Rounds",
+                        subtitle = "Number of intervals to complete",
+                        value = uiState.totalRepetitions,
+                        options = (1..60).toList(),
+                        optionLabel = { "$it rounds" },
+                        onSelect = { viewModel.updateTotalRepetitions(it) }
+                    )
+                }
+                TimerMode.CUSTOM -> {
+                    CustomStepsEditor(
+                        steps = uiState.customSteps,
+                        onKindChange = { index, kind -> viewModel.updateCustomStepKind(index, kind) },
+                        onSecondsChange = { index, seconds -> viewModel.updateCustomStepSeconds(index, seconds) },
+                        onRemove = { viewModel.removeCustomStep(it) },
+                        onAdd = { viewModel.addCustomStep() }
+                    )
+                    OptionDropdown(
+                        title = "Rounds",
+                        subtitle = "Times to repeat the steps above",
+                        value = uiState.totalRepetitions,
+                        options = (1..50).toList(),
+                        optionLabel = { "$it rounds" },
+                        onSelect = { viewModel.updateTotalRepetitions(it) }
+                    )
+                }
             }
 
             // Initial Countdown
@@ -440,6 +500,8 @@ fun CreateTimerScreen(
                         text = when (uiState.timerMode) {
                             TimerMode.WEIGHTLIFT -> "Play sound before each minute"
                             TimerMode.CLIMBING -> "Play sound before each rep"
+                            TimerMode.EMOM -> "Play sound before each round"
+                            TimerMode.TABATA, TimerMode.CUSTOM -> "Play sound before each interval"
                         },
                         style = MaterialTheme.typography.bodySmall,
                         color = subtextColor
@@ -527,6 +589,9 @@ fun CreateTimerScreen(
                 text = when (uiState.timerMode) {
                     TimerMode.WEIGHTLIFT -> "EMOM (Every Minute On the Minute): A workout where you start a new exercise at the beginning of each minute. This timer will track your progress and notify you before each new minute begins."
                     TimerMode.CLIMBING -> "Climbing Mode: Designed for hangboard and climbing training. Each rep consists of a hold period followed by rest. The timer will notify you before each new rep begins."
+                    TimerMode.TABATA -> "Tabata: High-intensity intervals of work followed by short rest, classically 8 rounds of 20 seconds on and 10 seconds off. The timer announces each rest and counts down into each interval."
+                    TimerMode.EMOM -> "EMOM with a custom interval: start a new round every interval rather than every minute, for example every 90 seconds for heavier sets."
+                    TimerMode.CUSTOM -> "Custom: Build a round from your own work and rest steps, then repeat it as many times as you like. The timer counts down into each step."
                 },
                 style = MaterialTheme.typography.bodySmall,
                 color = subtextColor
@@ -559,3 +624,170 @@ fun CreateTimerScreen(
         )
     }
 }
+
+private fun modeName(mode: TimerMode): String = when (mode) {
+    TimerMode.WEIGHTLIFT -> "Weightlift Mode"
+    TimerMode.CLIMBING -> "Climbing Mode"
+    TimerMode.TABATA -> "Tabata"
+    TimerMode.EMOM -> "EMOM (Custom Interval)"
+    TimerMode.CUSTOM -> "Custom Intervals"
+}
+
+@OptIn(ExperimentalMaterial3Api::class)
+@Composable
+private fun OptionDropdown(
+    title: String,
+    subtitle: String,
+    value: Int,
+    options: List<Int>,
+    optionLabel: (Int) -> String,
+    onSelect: (Int) -> Unit
+) {
+    val isGlassmorphic = LocalIsGlassmorphic.current
+    val textColor = if (isGlassmorphic) Color.White else MaterialTheme.colorScheme.onBackground
+    val subtextColor = if (isGlassmorphic) Color.White.copy(alpha = 0.5f) else MaterialTheme.colorScheme.onBackground.copy(alpha = 0.5f)
+
+    Column {
+        Text(
+            text = title,
+            style = MaterialTheme.typography.titleMedium,
+            color = textColor
+        )
+        Text(
+            text = subtitle,
+            style = MaterialTheme.typography.bodySmall,
+            color = subtextColor
+        )
+        Spacer(modifier = Modifier.height(8.dp))
+
+        var expanded by remember { mutableStateOf(false) }
+
+        ExposedDropdownMenuBox(
+            expanded = expanded,
+            onExpandedChange = { expanded = !expanded }
+        ) {
+            OutlinedTextField(
+                value = optionLabel(value),
+                onValueChange = {},
+                readOnly = true,
+                trailingIcon = { ExposedDropdownMenuDefaults.TrailingIcon(expanded = expanded) },
+                modifier = Modifier
+                    .menuAnchor()
+                    .fillMaxWidth()
+            )
+            ExposedDropdownMenu(
+                expanded = expanded,
+                onDismissRequest = { expanded = false },
+                modifier = if (isGlassmorphic) Modifier.background(GlassDialogBackground) else Modifier
+            ) {
+                options.forEach { option ->
+                    DropdownMenuItem(
+                        text = { Text(optionLabel(option)) },
+                        onClick = {
+                            onSelect(option)
+                            expanded = false
+                        }
+                    )
+                }
+            }
+        }
+    }
+}
+
+@OptIn(ExperimentalMaterial3Api::class)
+@Composable
+private fun CustomStepsEditor(
+    steps: List<WorkoutPlan.Step>,
+    onKindChange: (Int, Int) -> Unit,
+    onSecondsChange: (Int, Int) -> Unit,
+    onRemove: (Int) -> Unit,
+    onAdd: () -> Unit
+) {
+    val isGlassmorphic = LocalIsGlassmorphic.current
+    val textColor = if (isGlassmorphic) Color.White else MaterialTheme.colorScheme.onBackground
+    val subtextColor = if (isGlassmorphic) Color.White.copy(alpha = 0.5f) else MaterialTheme.colorScheme.onBackground.copy(alpha = 0.5f)
+
+    Column {
+        Text(
+            text = "Steps",
+            style = MaterialTheme.typography.titleMedium,
+            color = textColor
+        )
+        Text(
+            text = "One round, in order",
+            style = MaterialTheme.typography.bodySmall,
+            color = subtextColor
+        )
+        Spacer(modifier = Modifier.height(8.dp))
+
+        steps.forEachIndexed { index, step ->
+            Row(
+                modifier = Modifier.fillMaxWidth(),
+                horizontalArrangement = Arrangement.spacedBy(8.dp),
+                verticalAlignment = Alignment.CenterVertically
+            ) {
+                FilterChip(
+                    selected = step.kind != CueTimeline.SEGMENT_REST,
+                    onClick = { onKindChange(index, CueTimeline.SEGMENT_WORK) },
+                    label = { Text("Work") }
+                )
+                FilterChip(
+                    selected = step.kind == CueTimeline.SEGMENT_REST,
+                    onClick = { onKindChange(index, CueTimeline.SEGMENT_REST) },
+                    label = { Text("Rest") }
+                )
+
+                var expanded by remember { mutableStateOf(false) }
+
+                ExposedDropdownMenuBox(
+                    expanded = expanded,
+                    onExpandedChange = { expanded = !expanded },
+                    modifier = Modifier.weight(1f)
+                ) {
+                    OutlinedTextField(
+                        value = TimeUtils.formatTime(step.seconds),
+                        onValueChange = {},
+                        readOnly = true,
+                        singleLine = true,
+                        trailingIcon = { ExposedDropdownMenuDefaults.TrailingIcon(expanded = expanded) },
+                        modifier = Modifier.menuAnchor()
+                    )
+                    ExposedDropdownMenu(
+                        expanded = expanded,
+                        onDismissRequest = { expanded = false },
+                        modifier = if (isGlassmorphic) Modifier.background(GlassDialogBackground) else Modifier
+                    ) {
+                        CUSTOM_STEP_SECONDS.forEach { seconds ->
+                            DropdownMenuItem(
+                                text = { Text(TimeUtils.formatTime(seconds)) },
+                                onClick = {
+                                    onSecondsChange(index, seconds)
+                                    expanded = false
+                                }
+                            )
+                        }
+                    }
+                }
+
+                IconButton(
+                    onClick = { onRemove(index) },
+                    enabled = steps.size > 1
+                ) {
+                    Icon(
+                        imageVector = Icons.Default.Close,
+                        contentDescription = "Remove step"
+                    )
+                }
+            }
+            Spacer(modifier = Modifier.height(8.dp))
+        }
+
+        if (steps.size < WorkoutPlan.MAX_STEPS) {
+            TextButton(onClick = onAdd) {
+                Text("Add step")
+            }
+        }
+    }
+}
+
+private val CUSTOM_STEP_SECONDS = listOf(5, 10, 15, 20, 30, 40, 45, 60, 90, 120, 180, 240, 300, 600)
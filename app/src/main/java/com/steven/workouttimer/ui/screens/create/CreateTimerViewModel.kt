@@ -3,10 +3,12 @@ package com.steven.workouttimer.ui.screens.create
 import androidx.lifecycle.ViewModel
 import androidx.lifecycle.ViewModelProvider
 import androidx.lifecycle.viewModelScope
-import com.steven.workouttimer.data.db.AudioType
 import com.steven.workouttimer.data.db.TimerEntity
-import com.steven.workouttimer.data.db.TimerMode
 import com.steven.workouttimer.data.repository.TimerRepository
+import com.steven.workouttimer.engine.AudioType
+import com.steven.workouttimer.engine.CueTimeline
+import com.steven.workouttimer.engine.TimerMode
+import com.steven.workouttimer.engine.WorkoutPlan
 import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.StateFlow
 import kotlinx.coroutines.flow.asStateFlow
@@ -22,15 +24,33 @@ data class CreateTimerUiState(
     val audioType: AudioType = AudioType.BEEP,
     val countdownSeconds: Int = 3,
     val initialCountdownSeconds: Int = 0,
-    // Climbing mode specific
+    // Climbing, Tabata and EMOM presets; holdSeconds is the work or interval length
     val holdSeconds: Int = 7,
     val restSeconds: Int = 3,
     val totalRepetitions: Int = 6,
+    // Custom mode: one round of the plan, repeated totalRepetitions times
+    val customSteps: List<WorkoutPlan.Step> = DEFAULT_CUSTOM_STEPS,
     val isLoading: Boolean = false,
     val isSaved: Boolean = false,
     val isDeleted: Boolean = false,
     val nameError: String? = null
-)
+) {
+    /** The plan the current settings describe. */
+    fun plan(): WorkoutPlan = when (timerMode) {
+        TimerMode.WEIGHTLIFT -> WorkoutPlan.weightlift(totalMinutes)
+        TimerMode.CLIMBING -> WorkoutPlan.climbing(holdSeconds, restSeconds, totalRepetitions)
+        TimerMode.TABATA -> WorkoutPlan.tabata(holdSeconds, restSeconds, totalRepetitions)
+        TimerMode.EMOM -> WorkoutPlan.emom(holdSeconds, totalRepetitions)
+        TimerMode.CUSTOM -> WorkoutPlan(customSteps, totalRepetitions)
+    }
+
+    companion object {
+        val DEFAULT_CUSTOM_STEPS = listOf(
+            WorkoutPlan.Step(CueTimeline.SEGMENT_WORK, 40),
+            WorkoutPlan.Step(CueTimeline.SEGMENT_REST, 20)
+        )
+    }
+}
 
 class CreateTimerViewModel(
     private val repository: TimerRepository,
@@ -63,6 +83,11 @@ class CreateTimerViewModel(
                         holdSeconds = timer.holdSeconds,
                         restSeconds = timer.restSeconds,
                         totalRepetitions = timer.totalRepetitions,
+                        customSteps = if (timer.timerMode == TimerMode.CUSTOM.name) {
+                            timer.workoutPlan().steps
+                        } else {
+                            CreateTimerUiState.DEFAULT_CUSTOM_STEPS
+                        },
                         isLoading = false
                     )
                 }
@@ -99,8 +124,17 @@ class CreateTimerViewModel(
         _uiState.update { it.copy(initialCountdownSeconds = seconds.coerceIn(0, 30)) }
     }
 
+    /** Switches preset, starting it from its usual settings. */
     fun updateTimerMode(mode: TimerMode) {
-        _uiState.update { it.copy(timerMode = mode) }
+        _uiState.update {
+            if (it.timerMode == mode) return@update it
+            when (mode) {
+                TimerMode.CLIMBING -> it.copy(timerMode = mode, holdSeconds = 7, restSeconds = 3, totalRepetitions = 6)
+                TimerMode.TABATA -> it.copy(timerMode = mode, holdSeconds = 20, restSeconds = 10, totalRepetitions = 8)
+                TimerMode.EMOM -> it.copy(timerMode = mode, holdSeconds = 90, totalRepetitions = 10)
+                TimerMode.WEIGHTLIFT, TimerMode.CUSTOM -> it.copy(timerMode = mode)
+            }
+        }
     }
 
     fun updateHoldSeconds(seconds: Int) {
@@ -115,6 +149,44 @@ class CreateTimerViewModel(
         _uiState.update { it.copy(totalRepetitions = reps.coerceIn(1, 100)) }
     }
 
+    fun updateIntervalSeconds(seconds: Int) {
+        _uiState.update { it.copy(holdSeconds = seconds.coerceIn(10, 600)) }
+    }
+
+    fun addCustomStep() {
+        _uiState.update {
+            if (it.customSteps.size >= WorkoutPlan.MAX_STEPS) return@update it
+            // Alternate work and rest by default
+            val kind = if (it.customSteps.lastOrNull()?.kind == CueTimeline.SEGMENT_WORK) {
+                CueTimeline.SEGMENT_REST
+            } else {
+                CueTimeline.SEGMENT_WORK
+            }
+            it.copy(customSteps = it.customSteps + WorkoutPlan.Step(kind, 30))
+        }
+    }
+
+    fun removeCustomStep(index: Int) {
+        _uiState.update {
+            if (it.customSteps.size <= 1) return@update it
+            it.copy(customSteps = it.customSteps.filterIndexed { i, _ -> i != index })
+        }
+    }
+
+    fun updateCustomStepKind(index: Int, kind: Int) {
+        updateCustomStep(index) { WorkoutPlan.Step(kind, it.seconds) }
+    }
+
+    fun updateCustomStepSeconds(index: Int, seconds: Int) {
+        updateCustomStep(index) { it.copy(seconds = seconds.coerceIn(1, WorkoutPlan.MAX_STEP_SECONDS)) }
+    }
+
+    private fun updateCustomStep(index: Int, change: (WorkoutPlan.Step) -> WorkoutPlan.Step) {
+        _uiState.update {
+            it.copy(customSteps = it.customSteps.mapIndexed { i, step -> if (i == index) change(step) else step })
+        }
+    }
+
     fun saveTimer() {
         val state = _uiState.value
 
@@ -135,7 +207,8 @@ class CreateTimerViewModel(
                 initialCountdownSeconds = state.initialCountdownSeconds,
                 holdSeconds = state.holdSeconds,
                 restSeconds = state.restSeconds,
-                totalRepetitions = state.totalRepetitions
+                totalRepetitions = state.totalRepetitions,
+                plan = state.plan().encode()
             )
 
             if (state.id != null) {
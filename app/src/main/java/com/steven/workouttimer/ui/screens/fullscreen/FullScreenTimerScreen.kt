@@ -41,7 +41,8 @@ import androidx.compose.ui.unit.dp
 import androidx.core.view.WindowCompat
 import androidx.core.view.WindowInsetsCompat
 import androidx.core.view.WindowInsetsControllerCompat
-import com.steven.workouttimer.service.TimerState
+import com.steven.workouttimer.engine.TimerSession
+import com.steven.workouttimer.engine.TimerTick
 import com.steven.workouttimer.ui.components.ControlButtons
 import com.steven.workouttimer.ui.components.TimerDisplay
 import com.steven.workouttimer.ui.theme.GlassCardBackground
@@ -53,12 +54,16 @@ import kotlinx.coroutines.flow.StateFlow
 
 @Composable
 fun FullScreenTimerScreen(
-    timerStateFlow: StateFlow<TimerState>,
+    sessionFlow: StateFlow<TimerSession?>,
+    tickFlow: StateFlow<TimerTick>,
     onExitFullScreen: () -> Unit,
     onPlayPause: () -> Unit,
-    onStop: () -> Unit
+    onStop: () -> Unit,
+    onSkipBack: () -> Unit,
+    onSkipForward: () -> Unit
 ) {
-    val timerState by timerStateFlow.collectAsState()
+    val session by sessionFlow.collectAsState()
+    val timerState by tickFlow.collectAsState()
     var showControls by remember { mutableStateOf(true) }
     val view = LocalView.current
     val isGlassmorphic = LocalIsGlassmorphic.current
@@ -138,7 +143,7 @@ fun FullScreenTimerScreen(
                 exit = fadeOut()
             ) {
                 Text(
-                    text = timerState.timerName,
+                    text = session?.timerName.orEmpty(),
                     style = MaterialTheme.typography.headlineMedium,
                     color = Color.White.copy(alpha = 0.7f)
                 )
@@ -146,22 +151,21 @@ fun FullScreenTimerScreen(
 
             Spacer(modifier = Modifier.height(32.dp))
 
-            TimerDisplay(
-                currentSecond = timerState.currentSecond,
-                totalSeconds = timerState.totalSeconds,
-                currentMinute = timerState.currentMinute,
-                totalMinutes = timerState.totalMinutes,
-                isFullScreen = true,
-                isInInitialCountdown = timerState.isInInitialCountdown,
-                initialCountdownRemaining = timerState.initialCountdownRemaining,
-                timerMode = timerState.timerMode,
-                currentRepetition = timerState.currentRepetition,
-                totalRepetitions = timerState.totalRepetitions,
-                secondInRep = timerState.secondInRep,
-                holdSeconds = timerState.holdSeconds,
-                restSeconds = timerState.restSeconds,
-                isHolding = timerState.isHolding
-            )
+            session?.let { session ->
+                TimerDisplay(
+                    currentSecond = timerState.currentSecond,
+                    totalSeconds = session.totalSeconds,
+                    currentRound = timerState.currentRound,
+                    totalRounds = session.totalRounds,
+                    roundLabel = session.timerMode.roundLabel,
+                    hasPhases = session.plan.hasPhases,
+                    isFullScreen = true,
+                    isInInitialCountdown = timerState.isInInitialCountdown,
+                    initialCountdownRemaining = timerState.initialCountdownRemaining,
+                    segmentKind = timerState.segmentKind,
+                    segmentRemaining = timerState.segmentRemaining
+                )
+            }
 
             Spacer(modifier = Modifier.height(48.dp))
 
@@ -176,7 +180,9 @@ fun FullScreenTimerScreen(
                     onPlayPauseClick = onPlayPause,
                     onStopClick = onStop,
                     onFullScreenClick = onExitFullScreen,
-                    showFullScreenButton = false
+                    showFullScreenButton = false,
+                    onSkipBackClick = onSkipBack,
+                    onSkipForwardClick = onSkipForward
                 )
             }
         }
@@ -40,7 +40,8 @@ import com.steven.workouttimer.ui.theme.LocalIsGlassmorphic
 import com.steven.workouttimer.ui.theme.GlassSurface
 import com.steven.workouttimer.ui.theme.GlassDialogBackground
 import com.steven.workouttimer.data.preferences.ThemeMode
-import com.steven.workouttimer.service.TimerState
+import com.steven.workouttimer.engine.TimerSession
+import com.steven.workouttimer.engine.TimerTick
 import com.steven.workouttimer.ui.components.RunningTimerBanner
 import com.steven.workouttimer.ui.components.SettingsDialog
 import com.steven.workouttimer.ui.components.TimerCard
@@ -51,7 +52,12 @@ fun HomeScreen(
     viewModel: HomeViewModel,
     currentThemeMode: ThemeMode,
     onThemeModeChange: (ThemeMode) -> Unit,
-    runningTimerState: TimerState?,
+    pauseAutoStopMinutes: Int,
+    onPauseAutoStopMinutesChange: (Int) -> Unit,
+    cueAlarmWakeups: Boolean,
+    onCueAlarmWakeupsChange: (Boolean) -> Unit,
+    runningSession: TimerSession?,
+    runningTick: TimerTick,
     onRunningTimerTap: () -> Unit,
     onRunningTimerPlayPause: () -> Unit,
     onRunningTimerStop: () -> Unit,
@@ -105,7 +111,7 @@ fun HomeScreen(
                 .padding(paddingValues)
         ) {
             // Running timer section
-            if (runningTimerState != null && runningTimerState.isRunning) {
+            if (runningSession != null && runningTick.isRunning) {
                 Text(
                     text = "Running",
                     style = MaterialTheme.typography.labelMedium,
@@ -113,7 +119,8 @@ fun HomeScreen(
                     modifier = Modifier.padding(start = 16.dp, top = 16.dp, bottom = 4.dp)
                 )
                 RunningTimerBanner(
-                    timerState = runningTimerState,
+                    session = runningSession,
+                    tick = runningTick,
                     onTap = onRunningTimerTap,
                     onPlayPause = onRunningTimerPlayPause,
                     onStop = { showStopConfirmation = true },
@@ -171,6 +178,10 @@ fun HomeScreen(
         SettingsDialog(
             currentThemeMode = currentThemeMode,
             onThemeModeChange = onThemeModeChange,
+            pauseAutoStopMinutes = pauseAutoStopMinutes,
+            onPauseAutoStopMinutesChange = onPauseAutoStopMinutesChange,
+            cueAlarmWakeups = cueAlarmWakeups,
+            onCueAlarmWakeupsChange = onCueAlarmWakeupsChange,
             onDismiss = { showSettings = false }
         )
     }
@@ -201,12 +212,12 @@ fun HomeScreen(
     }
 
     // Delete running timer confirmation dialog
-    if (showDeleteConfirmation && runningTimerState != null) {
+    if (showDeleteConfirmation && runningSession != null) {
         AlertDialog(
             onDismissRequest = { showDeleteConfirmation = false },
             containerColor = if (isGlassmorphic) GlassDialogBackground else MaterialTheme.colorScheme.surface,
             title = { Text("Delete Timer") },
-            text = { Text("Are you sure you want to stop and delete \"${runningTimerState.timerName}\"? This action cannot be undone.") },
+            text = { Text("Are you sure you want to stop and delete \"${runningSession.timerName}\"? This action cannot be undone.") },
             confirmButton = {
                 TextButton(
                     onClick = {
@@ -3,10 +3,12 @@ package com.steven.workouttimer.ui.screens.timer
 import androidx.compose.foundation.layout.Arrangement
 import androidx.compose.foundation.layout.Box
 import androidx.compose.foundation.layout.Column
+import androidx.compose.foundation.layout.Row
 import androidx.compose.foundation.layout.Spacer
 import androidx.compose.foundation.layout.fillMaxSize
 import androidx.compose.foundation.layout.height
 import androidx.compose.foundation.layout.padding
+import androidx.compose.foundation.layout.width
 import androidx.compose.material.icons.Icons
 import androidx.compose.material.icons.filled.ArrowBack
 import androidx.compose.material3.AlertDialog
@@ -42,7 +44,8 @@ fun TimerScreen(
     onNavigateBack: () -> Unit,
     onFullScreen: () -> Unit
 ) {
-    val timerState by viewModel.timerState.collectAsState()
+    val session by viewModel.session.collectAsState()
+    val timerState by viewModel.tick.collectAsState()
     val timer by viewModel.timer.collectAsState()
     var showStopConfirmation by remember { mutableStateOf(false) }
     val isGlassmorphic = LocalIsGlassmorphic.current
@@ -87,21 +90,41 @@ fun TimerScreen(
                 verticalArrangement = Arrangement.Center,
                 modifier = Modifier.padding(16.dp)
             ) {
-                TimerDisplay(
-                    currentSecond = timerState.currentSecond,
-                    totalSeconds = timerState.totalSeconds,
-                    currentMinute = timerState.currentMinute,
-                    totalMinutes = timerState.totalMinutes,
-                    isInInitialCountdown = timerState.isInInitialCountdown,
-                    initialCountdownRemaining = timerState.initialCountdownRemaining,
-                    timerMode = timerState.timerMode,
-                    currentRepetition = timerState.currentRepetition,
-                    totalRepetitions = timerState.totalRepetitions,
-                    secondInRep = timerState.secondInRep,
-                    holdSeconds = timerState.holdSeconds,
-                    restSeconds = timerState.restSeconds,
-                    isHolding = timerState.isHolding
-                )
+                session?.let { session ->
+                    TimerDisplay(
+                        currentSecond = timerState.currentSecond,
+                        totalSeconds = session.totalSeconds,
+                        currentRound = timerState.currentRound,
+                        totalRounds = session.totalRounds,
+                        roundLabel = session.timerMode.roundLabel,
+                        hasPhases = session.plan.hasPhases,
+                        isInInitialCountdown = timerState.isInInitialCountdown,
+                        initialCountdownRemaining = timerState.initialCountdownRemaining,
+                        segmentKind = timerState.segmentKind,
+                        segmentRemaining = timerState.segmentRemaining
+                    )
+
+                    Spacer(modifier = Modifier.height(16.dp))
+
+                    // Lengthen or shorten the workout without restarting it: by time when
+                    // a round is a single interval, by whole rounds otherwise
+                    if (session.plan.hasPhases) {
+                        val round = session.timerMode.roundLabel.lowercase()
+                        AdjustButtons(
+                            lessLabel = "\u22121 $round",
+                            moreLabel = "+1 $round",
+                            onLess = { viewModel.adjustRounds(-1) },
+                            onMore = { viewModel.adjustRounds(1) }
+                        )
+                    } else {
+                        AdjustButtons(
+                            lessLabel = "\u221230s",
+                            moreLabel = "+30s",
+                            onLess = { viewModel.adjustTime(-ADJUST_SECONDS) },
+                            onMore = { viewModel.adjustTime(ADJUST_SECONDS) }
+                        )
+                    }
+                }
 
                 Spacer(modifier = Modifier.height(48.dp))
 
@@ -109,7 +132,9 @@ fun TimerScreen(
                     isRunning = timerState.isRunning && !timerState.isPaused,
                     onPlayPauseClick = { viewModel.togglePlayPause() },
                     onStopClick = { showStopConfirmation = true },
-                    onFullScreenClick = onFullScreen
+                    onFullScreenClick = onFullScreen,
+                    onSkipBackClick = { viewModel.skipBack() },
+                    onSkipForwardClick = { viewModel.skipForward() }
                 )
             }
         }
@@ -140,3 +165,23 @@ fun TimerScreen(
         )
     }
 }
+
+private const val ADJUST_SECONDS = 30
+
+@Composable
+private fun AdjustButtons(
+    lessLabel: String,
+    moreLabel: String,
+    onLess: () -> Unit,
+    onMore: () -> Unit
+) {
+    Row(verticalAlignment = Alignment.CenterVertically) {
+        TextButton(onClick = onLess) {
+            Text(lessLabel)
+        }
+        Spacer(modifier = Modifier.width(24.dp))
+        TextButton(onClick = onMore) {
+            Text(moreLabel)
+        }
+    }
+}
@@ -9,12 +9,13 @@ import android.os.IBinder
 import androidx.lifecycle.ViewModel
 import androidx.lifecycle.ViewModelProvider
 import androidx.lifecycle.viewModelScope
-import com.steven.workouttimer.data.db.AudioType
 import com.steven.workouttimer.data.db.TimerEntity
-import com.steven.workouttimer.data.db.TimerMode
 import com.steven.workouttimer.data.repository.TimerRepository
+import com.steven.workouttimer.engine.AudioType
+import com.steven.workouttimer.engine.TimerMode
+import com.steven.workouttimer.engine.TimerSession
+import com.steven.workouttimer.engine.TimerTick
 import com.steven.workouttimer.service.TimerService
-import com.steven.workouttimer.service.TimerState
 import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.StateFlow
 import kotlinx.coroutines.flow.asStateFlow
@@ -29,8 +30,11 @@ class TimerViewModel(
     private var timerService: TimerService? = null
     private var bound = false
 
-    private val _timerState = MutableStateFlow(TimerState())
-    val timerState: StateFlow<TimerState> = _timerState.asStateFlow()
+    private val _session = MutableStateFlow<TimerSession?>(null)
+    val session: StateFlow<TimerSession?> = _session.asStateFlow()
+
+    private val _tick = MutableStateFlow(TimerTick.IDLE)
+    val tick: StateFlow<TimerTick> = _tick.asStateFlow()
 
     private val _timer = MutableStateFlow<TimerEntity?>(null)
     val timer: StateFlow<TimerEntity?> = _timer.asStateFlow()
@@ -41,28 +45,30 @@ class TimerViewModel(
             timerService = binder.getService()
             bound = true
 
-            // Collect timer state from service
+            // Collect this timer's session from the service; others may be running alongside
+            viewModelScope.launch {
+                timerService?.sessionOf(timerId)?.collect { session ->
+                    _session.value = session
+                }
+            }
             viewModelScope.launch {
-                timerService?.timerState?.collect { state ->
-                    _timerState.value = state
+                timerService?.tickOf(timerId)?.collect { tick ->
+                    _tick.value = tick
                 }
             }
 
-            // Start the timer if not already running
+            // Starts the timer unless it is already running
             val currentTimer = _timer.value
-            if (currentTimer != null && !timerService!!.timerState.value.isRunning) {
+            if (currentTimer != null) {
                 timerService?.startTimer(
                     timerId = currentTimer.id,
                     timerName = currentTimer.name,
                     timerMode = TimerMode.valueOf(currentTimer.timerMode),
-                    totalMinutes = currentTimer.totalMinutes,
+                    plan = currentTimer.workoutPlan(),
                     audioEnabled = currentTimer.audioEnabled,
                     audioType = AudioType.valueOf(currentTimer.audioType),
                     countdownSeconds = currentTimer.countdownSeconds,
-                    initialCountdownSeconds = currentTimer.initialCountdownSeconds,
-                    holdSeconds = currentTimer.holdSeconds,
-                    restSeconds = currentTimer.restSeconds,
-                    totalRepetitions = currentTimer.totalRepetitions
+                    initialCountdownSeconds = currentTimer.initialCountdownSeconds
                 )
             }
         }
@@ -97,17 +103,27 @@ class TimerViewModel(
     }
 
     fun togglePlayPause() {
-        timerService?.let { service ->
-            if (service.timerState.value.isPaused) {
-                service.resumeTimer()
-            } else {
-                service.pauseTimer()
-            }
-        }
+        timerService?.togglePauseTimer(timerId)
     }
 
     fun stopTimer() {
-        timerService?.stopTimer()
+        timerService?.stopTimer(timerId)
+    }
+
+    fun skipForward() {
+        timerService?.skipForward(timerId)
+    }
+
+    fun skipBack() {
+        timerService?.skipBack(timerId)
+    }
+
+    fun adjustTime(deltaSeconds: Int) {
+        timerService?.adjustTime(timerId, deltaSeconds)
+    }
+
+    fun adjustRounds(delta: Int) {
+        timerService?.adjustRounds(timerId, delta)
     }
 
     override fun onCleared() {
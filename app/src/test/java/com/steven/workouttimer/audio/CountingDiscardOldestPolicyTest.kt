@@ -0,0 +1,92 @@
+package com.steven.workouttimer.audio
+
+import java.util.Collections
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class CountingDiscardOldestPolicyTest {
+
+    private val policy = CountingDiscardOldestPolicy()
+    private val executor = ThreadPoolExecutor(
+        1, 1, 0L, TimeUnit.MILLISECONDS, ArrayBlockingQueue(QUEUED), policy
+    )
+    private val ran = Collections.synchronizedList(ArrayList<Int>())
+
+    @After
+    fun shutDown() {
+        executor.shutdownNow()
+    }
+
+    @Test
+    fun dropsTheOldestWaitingTasksForNewOnes() {
+        val release = block()
+        for (task in 1..QUEUED + 3) {
+            executor.execute { ran.add(task) }
+        }
+        release.countDown()
+        drain()
+
+        assertEquals(listOf(4, 5, 6, 7), ran)
+        assertEquals(3L, policy.droppedCount)
+    }
+
+    @Test
+    fun dropsNothingWhileThereIsRoom() {
+        val release = block()
+        for (task in 1..QUEUED) {
+            executor.execute { ran.add(task) }
+        }
+        release.countDown()
+        drain()
+
+        assertEquals(listOf(1, 2, 3, 4), ran)
+        assertEquals(0L, policy.droppedCount)
+    }
+
+    @Test
+    fun resetStartsCountingAgain() {
+        val release = block()
+        repeat(QUEUED + 2) { executor.execute {} }
+        assertEquals(2L, policy.droppedCount)
+
+        policy.reset()
+        executor.execute {}
+        assertEquals(1L, policy.droppedCount)
+        release.countDown()
+    }
+
+    @Test
+    fun tasksAfterShutdownAreNotCounted() {
+        executor.shutdown()
+        executor.execute {}
+
+        assertEquals(0L, policy.droppedCount)
+    }
+
+    /** Occupies the executor's thread until the returned latch is released. */
+    private fun block(): CountDownLatch {
+        val started = CountDownLatch(1)
+        val release = CountDownLatch(1)
+        executor.execute {
+            started.countDown()
+            release.await()
+        }
+        started.await()
+        return release
+    }
+
+    private fun drain() {
+        executor.shutdown()
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS))
+    }
+
+    companion object {
+        private const val QUEUED = 4
+    }
+}
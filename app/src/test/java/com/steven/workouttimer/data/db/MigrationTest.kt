@@ -0,0 +1,111 @@
+package com.steven.workouttimer.data.db
+
+import com.steven.workouttimer.engine.WorkoutPlan
+import java.sql.Connection
+import java.sql.DriverManager
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+/**
+ * Runs AppDatabase's MIGRATION_3_4 on a version 3 table: the plans it writes in SQL must
+ * read back as the presets the old columns described.
+ */
+class MigrationTest {
+
+    private val db: Connection = DriverManager.getConnection("jdbc:sqlite::memory:").apply {
+        createStatement().use {
+            it.execute(
+                """
+                CREATE TABLE timers (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,
+                    name TEXT NOT NULL,
+                    timerMode TEXT NOT NULL,
+                    totalMinutes INTEGER NOT NULL,
+                    audioEnabled INTEGER NOT NULL,
+                    audioType TEXT NOT NULL,
+                    countdownSeconds INTEGER NOT NULL,
+                    initialCountdownSeconds INTEGER NOT NULL,
+                    holdSeconds INTEGER NOT NULL,
+                    restSeconds INTEGER NOT NULL,
+                    totalRepetitions INTEGER NOT NULL,
+                    createdAt INTEGER NOT NULL
+                )
+                """.trimIndent()
+            )
+        }
+    }
+
+    @After
+    fun close() {
+        db.close()
+    }
+
+    @Test
+    fun climbingTimersBecomeHoldAndRestPlans() {
+        val expected = mutableMapOf<Long, WorkoutPlan>()
+        for (hold in listOf(1, 7, 30, 600)) {
+            for (rest in listOf(0, 1, 3, 180)) {
+                for (repetitions in listOf(1, 6, 99)) {
+                    val id = insert("CLIMBING", totalMinutes = 10, hold, rest, repetitions)
+                    expected[id] = WorkoutPlan.climbing(hold, rest, repetitions)
+                }
+            }
+        }
+
+        migrate()
+
+        assertEquals(expected, plans())
+    }
+
+    @Test
+    fun weightliftTimersBecomeMinutePlans() {
+        val expected = mutableMapOf<Long, WorkoutPlan>()
+        for (minutes in listOf(1, 10, 45, 120)) {
+            val id = insert("WEIGHTLIFT", minutes, holdSeconds = 7, restSeconds = 3, totalRepetitions = 6)
+            expected[id] = WorkoutPlan.weightlift(minutes)
+        }
+
+        migrate()
+
+        assertEquals(expected, plans())
+    }
+
+    private fun insert(
+        timerMode: String,
+        totalMinutes: Int,
+        holdSeconds: Int,
+        restSeconds: Int,
+        totalRepetitions: Int
+    ): Long {
+        db.prepareStatement(
+            "INSERT INTO timers (name, timerMode, totalMinutes, audioEnabled, audioType, countdownSeconds, " +
+                "initialCountdownSeconds, holdSeconds, restSeconds, totalRepetitions, createdAt) " +
+                "VALUES ('Timer', ?, ?, 1, 'BEEP', 3, 0, ?, ?, ?, 0)"
+        ).use {
+            it.setString(1, timerMode)
+            it.setInt(2, totalMinutes)
+            it.setInt(3, holdSeconds)
+            it.setInt(4, restSeconds)
+            it.setInt(5, totalRepetitions)
+            it.executeUpdate()
+        }
+        return db.createStatement().use { it.executeQuery("SELECT last_insert_rowid()").getLong(1) }
+    }
+
+    private fun migrate() {
+        db.createStatement().use { statement ->
+            AppDatabase.MIGRATION_3_4_SQL.forEach(statement::execute)
+        }
+    }
+
+    private fun plans(): Map<Long, WorkoutPlan?> =
+        db.createStatement().use {
+            val rows = it.executeQuery("SELECT id, plan FROM timers")
+            buildMap {
+                while (rows.next()) {
+                    put(rows.getLong(1), WorkoutPlan.decode(rows.getString(2)))
+                }
+            }
+        }
+}
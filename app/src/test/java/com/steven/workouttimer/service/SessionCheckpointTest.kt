@@ -0,0 +1,100 @@
+package com.steven.workouttimer.service
+
+import com.steven.workouttimer.engine.AudioType
+import com.steven.workouttimer.engine.TimerMode
+import com.steven.workouttimer.engine.WorkoutPlan
+import java.nio.ByteBuffer
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class SessionCheckpointTest {
+
+    private val records = listOf(
+        record(1L, "Tabata", TimerMode.TABATA, WorkoutPlan.tabata()),
+        record(2L, "Hangboard", TimerMode.CLIMBING, WorkoutPlan.climbing(7, 3, 6), isPaused = true),
+        record(3L, "EMOM", TimerMode.EMOM, WorkoutPlan.emom(45, 12).withWorkoutSeconds(500))
+    )
+
+    @Test
+    fun recordsRoundTrip() {
+        val bytes = SessionCheckpoint.encode(records, BOOT)
+
+        assertEquals(SessionCheckpoint.FILE_SIZE, bytes.size)
+        assertEquals(records, SessionCheckpoint.decode(bytes, BOOT))
+    }
+
+    @Test
+    fun longNamesAreCutToWholeCharacters() {
+        val name = "Très long entraînement ".repeat(5)
+        val decoded = SessionCheckpoint.decode(
+            SessionCheckpoint.encode(listOf(record(1L, name, TimerMode.TABATA, WorkoutPlan.tabata())), BOOT),
+            BOOT
+        ).single()
+
+        assertTrue(name.startsWith(decoded.timerName))
+        assertTrue(decoded.timerName.toByteArray(Charsets.UTF_8).size <= 62)
+    }
+
+    @Test
+    fun keepsAtMostMaxSessions() {
+        val many = List(SessionCheckpoint.MAX_SESSIONS + 3) { index ->
+            record(index.toLong(), "Timer $index", TimerMode.TABATA, WorkoutPlan.tabata())
+        }
+
+        assertEquals(
+            many.take(SessionCheckpoint.MAX_SESSIONS),
+            SessionCheckpoint.decode(SessionCheckpoint.encode(many, BOOT), BOOT)
+        )
+    }
+
+    @Test
+    fun rejectsAnotherFormatVersion() {
+        val bytes = SessionCheckpoint.encode(records, BOOT)
+        ByteBuffer.wrap(bytes).putInt(VERSION_OFFSET, ByteBuffer.wrap(bytes).getInt(VERSION_OFFSET) - 1)
+
+        assertEquals(emptyList<SessionCheckpoint.Record>(), SessionCheckpoint.decode(bytes, BOOT))
+    }
+
+    @Test
+    fun rejectsATruncatedFile() {
+        val bytes = SessionCheckpoint.encode(records, BOOT)
+
+        assertEquals(emptyList<SessionCheckpoint.Record>(), SessionCheckpoint.decode(bytes.copyOf(bytes.size - 1), BOOT))
+        assertEquals(emptyList<SessionCheckpoint.Record>(), SessionCheckpoint.decode(ByteArray(0), BOOT))
+    }
+
+    @Test
+    fun rejectsAFileFromAnotherBoot() {
+        // elapsedRealtime restarted with the reboot, so the saved anchors mean nothing
+        val bytes = SessionCheckpoint.encode(records, BOOT)
+
+        assertEquals(emptyList<SessionCheckpoint.Record>(), SessionCheckpoint.decode(bytes, BOOT + 1))
+    }
+
+    private fun record(
+        timerId: Long,
+        name: String,
+        timerMode: TimerMode,
+        plan: WorkoutPlan,
+        isPaused: Boolean = false
+    ) = SessionCheckpoint.Record(
+        timerId = timerId,
+        timerName = name,
+        timerMode = timerMode,
+        plan = plan,
+        audioEnabled = timerId % 2 == 1L,
+        audioType = AudioType.entries[(timerId % 2).toInt()],
+        countdownSeconds = 3,
+        initialCountdownSeconds = 10,
+        anchorMs = 1_234_567L + timerId,
+        isPaused = isPaused,
+        frozenElapsedMs = if (isPaused) 93_437L else 0L,
+        pausedAtMs = if (isPaused) 1_300_000L else 0L
+    )
+
+    companion object {
+        private const val BOOT = 41
+        private const val VERSION_OFFSET = 4
+    }
+}
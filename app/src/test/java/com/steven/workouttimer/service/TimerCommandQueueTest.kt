@@ -0,0 +1,93 @@
+package com.steven.workouttimer.service
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+import kotlinx.coroutines.asCoroutineDispatcher
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withContext
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+class TimerCommandQueueTest {
+
+    private val queue = TimerCommandQueue()
+    private val handled = ArrayList<TimerCommand>()
+
+    @Test
+    fun commandsSentBeforeTheConsumerStartsWaitInOrder() {
+        val commands = listOf(TimerCommand.Pause(1L), TimerCommand.Resume(1L), TimerCommand.Stop(null))
+        commands.forEach(queue::send)
+        queue.close()
+
+        runBlocking { queue.run { handled.add(it) } }
+
+        assertEquals(commands, handled)
+    }
+
+    @Test
+    fun commandSentWhileHandlingRunsAfterTheCurrentOne() {
+        val order = ArrayList<String>()
+        queue.send(TimerCommand.Pause(1L))
+
+        runBlocking {
+            queue.run { command ->
+                order.add("start $command")
+                if (command is TimerCommand.Pause) {
+                    queue.send(TimerCommand.Resume(1L))
+                    queue.close()
+                }
+                order.add("end $command")
+            }
+        }
+
+        assertEquals(
+            listOf(
+                "start ${TimerCommand.Pause(1L)}", "end ${TimerCommand.Pause(1L)}",
+                "start ${TimerCommand.Resume(1L)}", "end ${TimerCommand.Resume(1L)}"
+            ),
+            order
+        )
+    }
+
+    @Test
+    fun eachSendersCommandsApplyInOrderOneAtATime() {
+        val senders = 4
+        val perSender = 2_000
+        val go = CountDownLatch(1)
+        val threads = List(senders) { sender ->
+            Thread {
+                go.await()
+                for (index in 0 until perSender) {
+                    queue.send(TimerCommand.AdjustTime(sender.toLong(), index))
+                }
+            }.apply { start() }
+        }
+        val inFlight = AtomicInteger()
+        val lastIndex = IntArray(senders) { -1 }
+        var total = 0
+        val engineThread = Executors.newSingleThreadExecutor()
+
+        runBlocking {
+            withContext(engineThread.asCoroutineDispatcher()) {
+                go.countDown()
+                Thread {
+                    threads.forEach(Thread::join)
+                    queue.close()
+                }.start()
+                queue.run { command ->
+                    assertEquals(1, inFlight.incrementAndGet())
+                    command as TimerCommand.AdjustTime
+                    val sender = command.timerId.toInt()
+                    assertEquals(lastIndex[sender] + 1, command.deltaSeconds)
+                    lastIndex[sender] = command.deltaSeconds
+                    total++
+                    inFlight.decrementAndGet()
+                }
+            }
+        }
+        engineThread.shutdown()
+
+        assertEquals(senders * perSender, total)
+    }
+}
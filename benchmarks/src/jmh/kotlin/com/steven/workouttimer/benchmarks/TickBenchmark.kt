@@ -0,0 +1,104 @@
+package com.steven.workouttimer.benchmarks
+
+import com.steven.workouttimer.engine.ActiveSession
+import com.steven.workouttimer.engine.AudioType
+import com.steven.workouttimer.engine.CueTimeline
+import com.steven.workouttimer.engine.TimerEngine
+import com.steven.workouttimer.engine.TimerMode
+import com.steven.workouttimer.engine.TimerSession
+import com.steven.workouttimer.engine.TimerTick
+import com.steven.workouttimer.engine.WorkoutPlan
+import java.util.concurrent.TimeUnit
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+
+/**
+ * The once-a-second work of a running session in both modes, on a virtual clock.
+ *
+ * [engineTick] is a whole engine wakeup: wheel pass, cue dispatch, segment tracking
+ * and publishing the new tick. [tickTransition] is only the state transition that
+ * produces the next [TimerTick]. Both should report zero bytes in gc.alloc.rate.norm;
+ * anything else means the tick path has started allocating.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class TickBenchmark {
+
+    @Param("WEIGHTLIFT", "CLIMBING")
+    var mode = "WEIGHTLIFT"
+
+    private var nowMs = 0L
+    private lateinit var session: TimerSession
+    private lateinit var engine: TimerEngine
+    private lateinit var timeline: CueTimeline
+    private var position = 0
+    private var segment = 0
+
+    // Keeps the listener from being optimised away without allocating per call
+    private var lastTick = 0L
+
+    @Setup(Level.Iteration)
+    fun setUp() {
+        val timerMode = TimerMode.valueOf(mode)
+        session = TimerEngine.compileSession(
+            timerId = 1,
+            timerName = "Benchmark",
+            timerMode = timerMode,
+            plan = when (timerMode) {
+                TimerMode.CLIMBING -> WorkoutPlan.climbing(holdSeconds = 7, restSeconds = 3, totalRepetitions = 500)
+                else -> WorkoutPlan.weightlift(totalMinutes = 120)
+            },
+            audioEnabled = true,
+            audioType = AudioType.BEEP,
+            countdownSeconds = 5,
+            initialCountdownSeconds = 10
+        )
+        timeline = session.timeline
+        nowMs = 0L
+        engine = TimerEngine({ nowMs }, object : TimerEngine.Listener {
+            override fun onTick(running: ActiveSession) {
+                lastTick = running.tick.packed
+            }
+
+            override fun onCue(running: ActiveSession, kind: Int, value: Int) = Unit
+
+            override fun onComplete(running: ActiveSession) = Unit
+
+            override fun onPassComplete(segmentsChanged: Boolean, sessionsEnded: Boolean) = Unit
+        })
+        engine.start(session)
+        position = 0
+        segment = 0
+    }
+
+    @Benchmark
+    fun engineTick(): Long {
+        // Sessions are a couple of hours long; start over when one finishes
+        if (!engine.hasPendingWork) {
+            engine.start(session)
+        }
+        nowMs += 1000L
+        engine.runPass(nowMs)
+        return lastTick
+    }
+
+    @Benchmark
+    fun tickTransition(): Long {
+        if (++position >= timeline.totalTicks) {
+            position = 0
+            segment = 0
+        }
+        while (timeline.segmentEnd(segment) <= position) {
+            segment++
+        }
+        return TimerTick.at(timeline, segment, position).packed
+    }
+}
@@ -0,0 +1,30 @@
+package com.steven.workouttimer.benchmarks
+
+import com.steven.workouttimer.util.TimeUtils
+import java.util.concurrent.TimeUnit
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.State
+
+/**
+ * Formatting of the remaining time, called on every tick by the timer screens.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class TimeUtilsBenchmark {
+
+    // Under a minute, under an hour, and past an hour for formatTimeWithHours
+    @Param("42", "754", "7199")
+    var seconds = 0
+
+    @Benchmark
+    fun formatTime(): String = TimeUtils.formatTime(seconds)
+
+    @Benchmark
+    fun formatTimeWithHours(): String = TimeUtils.formatTimeWithHours(seconds)
+}
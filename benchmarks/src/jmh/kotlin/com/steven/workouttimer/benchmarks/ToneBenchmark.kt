@@ -0,0 +1,39 @@
+package com.steven.workouttimer.benchmarks
+
+import com.steven.workouttimer.audio.ToneCache
+import com.steven.workouttimer.audio.ToneSynth
+import java.util.concurrent.TimeUnit
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+
+/**
+ * Sine synthesis for a countdown beep: 200 ms for the regular beeps, 1 s for the last,
+ * against replaying the same beep from a warm [ToneCache].
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+open class ToneBenchmark {
+
+    @Param("200", "1000")
+    var durationMs = 200
+
+    private val cache = ToneCache()
+
+    @Setup
+    fun setUp() {
+        cache.get(900.0, durationMs, 0.85)
+    }
+
+    @Benchmark
+    fun countdownTone(): ShortArray = ToneSynth.sine(900.0, durationMs, 0.85)
+
+    @Benchmark
+    fun cachedCountdownTone(): ShortArray = cache.get(900.0, durationMs, 0.85)
+}
@@ -15,3 +15,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "StevenWorkoutTimer"
 include(":app")
+include(":timer-engine")
+include(":benchmarks")
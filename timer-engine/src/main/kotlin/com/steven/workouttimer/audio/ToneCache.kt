@@ -0,0 +1,87 @@
+package com.steven.workouttimer.audio
+
+/**
+ * Bounded cache of synthesized tones, keyed by frequency, duration and volume, so a
+ * tone is rendered once and replayed from memory afterwards.
+ *
+ * Frequency is keyed to 0.01 Hz and volume to 0.001, well below anything audible.
+ * Once the cached samples exceed [maxBytes], the least recently used tones are
+ * dropped; callers holding on to a tone keep it alive regardless. All methods are
+ * safe to call from any thread.
+ */
+class ToneCache(
+    private val maxBytes: Long = DEFAULT_MAX_BYTES,
+    private val sampleRate: Int = ToneSynth.SAMPLE_RATE
+) {
+    private val tones = LinkedHashMap<Long, ShortArray>(16, 0.75f, true)
+
+    /** Bytes of PCM currently held. */
+    var sizeBytes = 0L
+        private set
+
+    var hits = 0L
+        private set
+
+    var misses = 0L
+        private set
+
+    var evictions = 0L
+        private set
+
+    val toneCount: Int
+        @Synchronized get() = tones.size
+
+    /**
+     * The samples of a [frequency] Hz tone lasting [durationMs] at [volume], rendered
+     * with [ToneSynth.sine] on first use. The array is shared; callers must not
+     * modify it.
+     */
+    @Synchronized
+    fun get(frequency: Double, durationMs: Int, volume: Double): ShortArray {
+        val key = keyOf(frequency, durationMs, volume)
+        tones[key]?.let {
+            hits++
+            return it
+        }
+        misses++
+        val samples = ToneSynth.sine(frequency, durationMs, volume, sampleRate)
+        tones[key] = samples
+        sizeBytes += samples.size * Short.SIZE_BYTES
+        evictOver(maxBytes)
+        return samples
+    }
+
+    @Synchronized
+    fun clear() {
+        tones.clear()
+        sizeBytes = 0L
+    }
+
+    /** One line summary, e.g. `tones=10 bytes=246960 hits=52 misses=10 evictions=0`. */
+    @Synchronized
+    fun summary(): String =
+        "tones=${tones.size} bytes=$sizeBytes hits=$hits misses=$misses evictions=$evictions"
+
+    private fun evictOver(limit: Long) {
+        val iterator = tones.values.iterator()
+        // Always keep the tone just added, even if it alone is over the limit
+        while (sizeBytes > limit && tones.size > 1) {
+            val eldest = iterator.next()
+            iterator.remove()
+            sizeBytes -= eldest.size * Short.SIZE_BYTES
+            evictions++
+        }
+    }
+
+    companion object {
+        /** Room for every countdown set of up to 10 beeps, about 250 KB each. */
+        const val DEFAULT_MAX_BYTES = 3L * 1024 * 1024
+
+        private fun keyOf(frequency: Double, durationMs: Int, volume: Double): Long {
+            val centiHertz = Math.round(frequency * 100).coerceIn(0L, (1L shl 26) - 1)
+            val milliVolume = Math.round(volume * 1000).coerceIn(0L, (1L shl 12) - 1)
+            val duration = durationMs.toLong().coerceIn(0L, (1L shl 24) - 1)
+            return (centiHertz shl 36) or (duration shl 12) or milliVolume
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.steven.workouttimer.audio
+
+import com.steven.workouttimer.engine.LatencyHistogram
+import java.util.concurrent.ConcurrentLinkedQueue
+
+/**
+ * Sums tones into one stream of 16-bit mono PCM, so cues that overlap are heard
+ * together instead of cutting each other off.
+ *
+ * A tone is either [play]ed as soon as possible or [schedule]d for a moment in
+ * [System.nanoTime] time, which the mixer turns into an exact frame of the stream
+ * through the output clock the feeding thread keeps up to date with [setOutputClock].
+ *
+ * [play], [schedule] and [cancel] may be called from any thread. [mix],
+ * [setOutputClock] and [startStream] are called by the one thread feeding the output,
+ * which alone owns the voices; requests wait in one lock-free queue until its next
+ * block and are applied in the order they were made. At most [maxVoices] tones wait or play at once, further ones are dropped and
+ * counted.
+ */
+class ToneMixer(
+    private val maxVoices: Int = MAX_VOICES,
+    private val sampleRate: Int = ToneSynth.SAMPLE_RATE
+) {
+
+    private class Voice(
+        val samples: ShortArray,
+        val queuedAtNanos: Long,
+        /** When the first sample should be heard, or [ASAP]. */
+        val startAtNanos: Long,
+        val tag: Long,
+        /** A request to withdraw the waiting tones with [tag] rather than a tone. */
+        val cancels: Boolean = false
+    ) {
+        var startFrame = NOT_STARTED
+        var position = 0
+    }
+
+    private val requests = ConcurrentLinkedQueue<Voice>()
+    private val voices = arrayOfNulls<Voice>(maxVoices)
+    private var voiceCount = 0
+    private var accumulator = IntArray(0)
+
+    // Frame of the next block, and the latest known frame/time pair of the output
+    private var mixedFrames = 0L
+    private var clockFrame = 0L
+    private var clockNanos = 0L
+
+    // Started scheduled tones awaiting a later clock reading, when verifying timing
+    private val pendingFrames = LongArray(maxVoices)
+    private val pendingTargets = LongArray(maxVoices)
+    private var pendingCount = 0
+
+    /** Time from [play] to the tone's first sample being heard, per tone started. */
+    val onsetLatency = LatencyHistogram()
+
+    /** Tones dropped because [maxVoices] were already waiting or playing. */
+    @Volatile
+    var droppedVoices = 0L
+        private set
+
+    /** Scheduled tones whose moment had passed by the time their block was mixed. */
+    @Volatile
+    var lateVoices = 0L
+        private set
+
+    /**
+     * Test mode: once a scheduled tone has played, compares the frame it was placed on
+     * with the frame a later output clock reading maps its moment to. This measures how
+     * far the clock estimate drifted between placing the tone and that reading. It is
+     * not the tone's real onset error: latency the output timestamp does not report
+     * shifts both frames alike and goes unseen. The feeding thread should then read the
+     * output clock every block.
+     */
+    @Volatile
+    var verifyTiming = false
+
+    @Volatile
+    private var timingCount = 0L
+    @Volatile
+    private var timingLastFrames = 0L
+    @Volatile
+    private var timingMaxFrames = 0L
+    @Volatile
+    private var timingTotalFrames = 0L
+
+    /** Queues [samples] to start at the beginning of the next mixed block. */
+    fun play(samples: ShortArray, queuedAtNanos: Long = System.nanoTime()) {
+        requests.add(Voice(samples, queuedAtNanos, ASAP, NO_TAG))
+    }
+
+    /**
+     * Queues [samples] so that their first sample is heard at [atNanos], on the
+     * [System.nanoTime] clock. [tag] lets [cancel] withdraw it before it starts.
+     */
+    fun schedule(samples: ShortArray, atNanos: Long, tag: Long) {
+        requests.add(Voice(samples, System.nanoTime(), atNanos, tag))
+    }
+
+    /**
+     * Withdraws every tone scheduled with [tag] that has not started yet. Tones
+     * scheduled with the same tag after this call are kept.
+     */
+    fun cancel(tag: Long) {
+        requests.add(Voice(NO_SAMPLES, 0L, ASAP, tag, cancels = true))
+    }
+
+    /**
+     * Starts counting frames from 0 again for a new output stream whose first frame is
+     * expected to be heard around [nanos], as a new track's position restarts at 0.
+     * Waiting tones are kept; ones already playing carry on from the new stream's
+     * first block. Call from the feeding thread before it mixes the stream's first block.
+     */
+    fun startStream(nanos: Long) {
+        mixedFrames = 0L
+        clockFrame = 0L
+        clockNanos = nanos
+        pendingCount = 0
+        for (index in 0 until voiceCount) {
+            val voice = voices[index]!!
+            if (voice.startFrame != NOT_STARTED) voice.startFrame = 0L
+        }
+    }
+
+    /**
+     * Records that frame [frame] of the stream, counted from its first mixed sample,
+     * is heard at [nanos] on the [System.nanoTime] clock.
+     */
+    fun setOutputClock(frame: Long, nanos: Long) {
+        clockFrame = frame
+        clockNanos = nanos
+        if (pendingCount > 0) checkTiming()
+    }
+
+    /**
+     * Fills [length] samples of [out] from [offset] with the next block of the stream:
+     * the sum of the playing tones, clipped to 16 bits, or silence while none play.
+     *
+     * @return the number of tones still waiting or playing
+     */
+    fun mix(out: ShortArray, offset: Int, length: Int): Int {
+        val blockStart = mixedFrames
+        mixedFrames += length
+        takeRequests()
+        if (voiceCount == 0) {
+            out.fill(0, offset, offset + length)
+            return 0
+        }
+        if (accumulator.size < length) {
+            accumulator = IntArray(length)
+        }
+        val sum = accumulator
+        sum.fill(0, 0, length)
+
+        var kept = 0
+        var audible = false
+        for (index in 0 until voiceCount) {
+            val voice = voices[index]!!
+            if (voice.startFrame == NOT_STARTED && !start(voice, blockStart, length)) {
+                voices[kept++] = voice
+                continue
+            }
+            val samples = voice.samples
+            val into = maxOf(0L, voice.startFrame - blockStart).toInt()
+            val from = voice.position
+            val count = minOf(length - into, samples.size - from)
+            for (i in 0 until count) {
+                sum[into + i] += samples[from + i].toInt()
+            }
+            audible = true
+            voice.position += count
+            if (voice.position < samples.size) {
+                voices[kept++] = voice
+            }
+        }
+        for (index in kept until voiceCount) {
+            voices[index] = null
+        }
+        voiceCount = kept
+
+        if (!audible) {
+            out.fill(0, offset, offset + length)
+        } else {
+            for (i in 0 until length) {
+                out[offset + i] = sum[i].coerceIn(Short.MIN_VALUE.toInt(), Short.MAX_VALUE.toInt()).toShort()
+            }
+        }
+        return voiceCount
+    }
+
+    /** Drops every waiting and playing tone. Call from the mixing thread. */
+    fun clear() {
+        requests.clear()
+        voices.fill(null)
+        voiceCount = 0
+        pendingCount = 0
+    }
+
+    /**
+     * Drift of the output clock estimate at scheduled tones, in frames, e.g.
+     * `n=12 last=-3 mean=2.4 max=9`; see [verifyTiming]. Only measured while it is on.
+     */
+    fun timingSummary(): String {
+        val count = timingCount
+        val mean = if (count == 0L) 0.0 else timingTotalFrames.toDouble() / count
+        return "n=$count last=$timingLastFrames mean=${"%.1f".format(mean)} max=$timingMaxFrames"
+    }
+
+    fun resetTiming() {
+        timingCount = 0L
+        timingLastFrames = 0L
+        timingMaxFrames = 0L
+        timingTotalFrames = 0L
+        lateVoices = 0L
+    }
+
+    private fun takeRequests() {
+        while (true) {
+            val request = requests.poll() ?: return
+            if (request.cancels) {
+                withdraw(request.tag)
+            } else if (voiceCount == maxVoices) {
+                droppedVoices++
+            } else {
+                voices[voiceCount++] = request
+            }
+        }
+    }
+
+    private fun withdraw(tag: Long) {
+        var kept = 0
+        for (index in 0 until voiceCount) {
+            val voice = voices[index]!!
+            if (voice.tag != tag || voice.startFrame != NOT_STARTED) {
+                voices[kept++] = voice
+            }
+        }
+        for (index in kept until voiceCount) {
+            voices[index] = null
+        }
+        voiceCount = kept
+    }
+
+    /**
+     * Places [voice] in the block of [length] frames from [blockStart] if it is due
+     * there; a scheduled voice whose frame has already been mixed starts right away.
+     *
+     * @return false if the voice is not due yet
+     */
+    private fun start(voice: Voice, blockStart: Long, length: Int): Boolean {
+        if (voice.startAtNanos == ASAP) {
+            voice.startFrame = blockStart
+            onsetLatency.record((nanosOf(blockStart) - voice.queuedAtNanos) / 1_000_000)
+            return true
+        }
+        val target = frameOf(voice.startAtNanos)
+        if (target >= blockStart + length) return false
+        if (target < blockStart) {
+            lateVoices++
+            voice.startFrame = blockStart
+        } else {
+            voice.startFrame = target
+        }
+        if (verifyTiming && pendingCount < pendingFrames.size) {
+            pendingFrames[pendingCount] = voice.startFrame
+            pendingTargets[pendingCount] = voice.startAtNanos
+            pendingCount++
+        }
+        return true
+    }
+
+    /**
+     * Re-maps the moment of each started scheduled tone that the new clock reading has
+     * reached, and records how many frames that differs from where the tone was placed.
+     */
+    private fun checkTiming() {
+        var kept = 0
+        for (index in 0 until pendingCount) {
+            val frame = pendingFrames[index]
+            val target = pendingTargets[index]
+            if (frame > clockFrame) {
+                pendingFrames[kept] = frame
+                pendingTargets[kept] = target
+                kept++
+                continue
+            }
+            val offsetFrames = frame - frameOf(target)
+            timingCount++
+            timingLastFrames = offsetFrames
+            timingTotalFrames += Math.abs(offsetFrames)
+            if (Math.abs(offsetFrames) > timingMaxFrames) timingMaxFrames = Math.abs(offsetFrames)
+        }
+        pendingCount = kept
+    }
+
+    private fun frameOf(nanos: Long): Long =
+        clockFrame + Math.floorDiv((nanos - clockNanos) * sampleRate, NANOS_PER_SECOND)
+
+    private fun nanosOf(frame: Long): Long =
+        clockNanos + (frame - clockFrame) * NANOS_PER_SECOND / sampleRate
+
+    companion object {
+        /** Far more than a countdown, a double beep and a second session ever overlap. */
+        const val MAX_VOICES = 8
+
+        private const val ASAP = Long.MIN_VALUE
+        private const val NOT_STARTED = Long.MIN_VALUE
+        private const val NO_TAG = Long.MIN_VALUE
+        private val NO_SAMPLES = ShortArray(0)
+        private const val NANOS_PER_SECOND = 1_000_000_000L
+    }
+}
@@ -0,0 +1,37 @@
+package com.steven.workouttimer.audio
+
+import kotlin.math.sin
+
+/**
+ * PCM synthesis for the countdown tones, kept free of Android so it can be
+ * benchmarked on a plain JVM.
+ */
+object ToneSynth {
+    const val SAMPLE_RATE = 44100
+
+    /**
+     * 16-bit mono sine of [frequency] Hz lasting [durationMs], scaled by [volume] and
+     * faded in and out over 10 ms to avoid clicks.
+     */
+    fun sine(frequency: Double, durationMs: Int, volume: Double, sampleRate: Int = SAMPLE_RATE): ShortArray {
+        val numSamples = (sampleRate * durationMs / 1000.0).toInt()
+        val samples = ShortArray(numSamples)
+        val fadeSamples = (sampleRate * 0.01).toInt()
+
+        // Generate sine wave
+        for (i in 0 until numSamples) {
+            val angle = 2.0 * Math.PI * i * frequency / sampleRate
+            var sample = sin(angle)
+
+            // Apply fade in/out to avoid clicks (10ms fade)
+            if (i < fadeSamples) {
+                sample *= i.toDouble() / fadeSamples
+            } else if (i > numSamples - fadeSamples) {
+                sample *= (numSamples - i).toDouble() / fadeSamples
+            }
+
+            samples[i] = (sample * volume * Short.MAX_VALUE).toInt().toShort()
+        }
+        return samples
+    }
+}
@@ -0,0 +1,84 @@
+package com.steven.workouttimer.audio
+
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+
+/**
+ * Reads the 16-bit PCM WAV files text-to-speech engines write, as mono samples at the
+ * mixer's rate, so recorded phrases play through the same path as tones.
+ */
+object WavPcm {
+
+    /**
+     * The samples of [wav] down-mixed to mono and resampled to [sampleRate], or null
+     * if it is not a 16-bit PCM WAV file.
+     */
+    fun decode(wav: ByteArray, sampleRate: Int = ToneSynth.SAMPLE_RATE): ShortArray? {
+        val buffer = ByteBuffer.wrap(wav).order(ByteOrder.LITTLE_ENDIAN)
+        if (wav.size < HEADER_BYTES || buffer.getInt(0) != RIFF || buffer.getInt(8) != WAVE) return null
+
+        var channels = 0
+        var sourceRate = 0
+        var dataStart = -1
+        var dataBytes = 0
+        var chunk = HEADER_BYTES
+        while (chunk + 8 <= wav.size) {
+            val id = buffer.getInt(chunk)
+            val size = buffer.getInt(chunk + 4)
+            val body = chunk + 8
+            if (id == DATA) {
+                dataStart = body
+                // Engines writing the file as a stream may leave the size unset
+                dataBytes = if (size <= 0 || body + size > wav.size) wav.size - body else size
+                break
+            }
+            if (size < 0 || size > wav.size - body) return null
+            if (id == FMT) {
+                if (body + 16 > wav.size) return null
+                val format = buffer.getShort(body).toInt()
+                val bits = buffer.getShort(body + 14).toInt()
+                if (format != FORMAT_PCM || bits != 16) return null
+                channels = buffer.getShort(body + 2).toInt()
+                sourceRate = buffer.getInt(body + 4)
+            }
+            chunk = body + size + (size and 1)
+        }
+        if (dataStart < 0 || channels < 1 || sourceRate <= 0) return null
+
+        val frames = dataBytes / (2 * channels)
+        val mono = ShortArray(frames)
+        for (frame in 0 until frames) {
+            var sum = 0
+            for (channel in 0 until channels) {
+                sum += buffer.getShort(dataStart + (frame * channels + channel) * 2)
+            }
+            mono[frame] = (sum / channels).toShort()
+        }
+        return resample(mono, sourceRate, sampleRate)
+    }
+
+    /** Linear interpolation from [fromRate] to [toRate]; plenty for speech. */
+    fun resample(samples: ShortArray, fromRate: Int, toRate: Int): ShortArray {
+        if (fromRate == toRate || samples.isEmpty()) return samples
+        val length = (samples.size.toLong() * toRate / fromRate).toInt()
+        val out = ShortArray(length)
+        val step = fromRate.toDouble() / toRate
+        for (i in 0 until length) {
+            val position = i * step
+            val index = position.toInt()
+            val next = minOf(index + 1, samples.size - 1)
+            val fraction = position - index
+            out[i] = (samples[index] + (samples[next] - samples[index]) * fraction).toInt().toShort()
+        }
+        return out
+    }
+
+    private const val HEADER_BYTES = 12
+    private const val FORMAT_PCM = 1
+
+    // Chunk ids as little-endian ints
+    private const val RIFF = 0x46464952
+    private const val WAVE = 0x45564157
+    private const val FMT = 0x20746d66
+    private const val DATA = 0x61746164
+}
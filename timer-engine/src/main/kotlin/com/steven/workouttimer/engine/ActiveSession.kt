@@ -0,0 +1,39 @@
+package com.steven.workouttimer.engine
+
+/**
+ * Engine-side state of one running session: its clock, its cursors into the compiled
+ * timeline and its latest tick. Owned by the thread that drives the [TimerEngine].
+ */
+class ActiveSession(
+    /** Replaced, never mutated, when the session's length is adjusted while running. */
+    @Volatile var session: TimerSession,
+    val clock: TickScheduler
+) {
+    val timeline: CueTimeline
+        get() = session.timeline
+
+    /** Latest published tick; see [TimerEngine.Listener.onTick]. */
+    var tick = TimerTick.IDLE
+
+    /** Last tick handled; -1 until the first tick is due. */
+    var position = -1
+
+    /** Tick the session's wheel timer is set for. */
+    var nextTick = 0
+    lateinit var tickTimer: TimingWheel.Timer
+    var cueCursor = 0
+    var segmentCursor = 0
+
+    /**
+     * Cues of the next tick the listener took ahead of time: bit `i` stands for cue
+     * [aheadFirstCue] + `i`. They are not dispatched again when they fall due.
+     */
+    var aheadTaken = 0L
+    var aheadFirstCue = 0
+
+    /** Monotonic time the session was paused at, for the idle auto-stop. */
+    var pausedAtMs = 0L
+
+    val isTicking: Boolean
+        get() = !clock.isPaused
+}
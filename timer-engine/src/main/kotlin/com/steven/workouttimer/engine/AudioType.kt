@@ -0,0 +1,6 @@
+package com.steven.workouttimer.engine
+
+enum class AudioType {
+    BEEP,
+    VOICE
+}
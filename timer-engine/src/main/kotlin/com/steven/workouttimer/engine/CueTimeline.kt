@@ -0,0 +1,303 @@
+package com.steven.workouttimer.engine
+
+/**
+ * A session compiled into flat arrays of cues and segments, indexed by tick.
+ *
+ * Tick `t` is the t-th second since the session started, including the initial
+ * countdown. Cues at tick `t` fire at the start of that second; the completion cue
+ * sits at [totalTicks]. Segments are contiguous: segment `i` covers
+ * `[segmentStart(i), segmentEnd(i))`.
+ *
+ * The tick loop walks both arrays with cursors, so nothing about the workout plan
+ * has to be re-derived while the session is running.
+ */
+class CueTimeline private constructor(
+    val totalTicks: Int,
+    val prepareTicks: Int,
+    val maxCountdownSeconds: Int,
+    val completionMessage: String,
+    private val cueTicks: IntArray,
+    private val cueKinds: IntArray,
+    private val cueValues: IntArray,
+    private val segmentStarts: IntArray,
+    private val segmentKinds: IntArray,
+    private val segmentNumbers: IntArray,
+    private val segmentFirstCues: IntArray
+) {
+    val cueCount: Int
+        get() = cueTicks.size
+
+    val segmentCount: Int
+        get() = segmentKinds.size
+
+    fun cueTick(index: Int): Int = cueTicks[index]
+
+    fun cueKind(index: Int): Int = cueKinds[index]
+
+    fun cueValue(index: Int): Int = cueValues[index]
+
+    fun segmentStart(index: Int): Int = segmentStarts[index]
+
+    fun segmentEnd(index: Int): Int = segmentStarts[index + 1]
+
+    fun segmentKind(index: Int): Int = segmentKinds[index]
+
+    /** The plan round the segment belongs to. */
+    fun segmentNumber(index: Int): Int = segmentNumbers[index]
+
+    /**
+     * Index of the first cue at or after the start of segment [index]. [segmentCount]
+     * itself is allowed and gives the completion cue.
+     */
+    fun segmentFirstCue(index: Int): Int = segmentFirstCues[index]
+
+    /**
+     * Index of the segment containing [tick], clamped to the last segment.
+     */
+    fun segmentAt(tick: Int): Int {
+        var low = 0
+        var high = segmentKinds.size - 1
+        while (low < high) {
+            val mid = (low + high + 1) ushr 1
+            if (segmentStarts[mid] <= tick) low = mid else high = mid - 1
+        }
+        return low
+    }
+
+    /**
+     * Index of the first cue at or after [tick], or [cueCount] if there is none.
+     */
+    fun firstCueAtOrAfter(tick: Int): Int {
+        var low = 0
+        var high = cueTicks.size
+        while (low < high) {
+            val mid = (low + high) ushr 1
+            if (cueTicks[mid] < tick) low = mid + 1 else high = mid
+        }
+        return low
+    }
+
+    private class Builder {
+        private val cueTicks = IntList()
+        private val cueKinds = IntList()
+        private val cueValues = IntList()
+        private val segmentStarts = IntList()
+        private val segmentKinds = IntList()
+        private val segmentNumbers = IntList()
+
+        fun cue(tick: Int, kind: Int, value: Int = 0) {
+            cueTicks.add(tick)
+            cueKinds.add(kind)
+            cueValues.add(value)
+        }
+
+        fun segment(start: Int, kind: Int, number: Int) {
+            segmentStarts.add(start)
+            segmentKinds.add(kind)
+            segmentNumbers.add(number)
+        }
+
+        /** Seeds the builder with the first [segments] segments and [cues] cues of [timeline]. */
+        fun copyPrefix(timeline: CueTimeline, segments: Int, cues: Int) {
+            for (i in 0 until segments) {
+                segment(timeline.segmentStart(i), timeline.segmentKind(i), timeline.segmentNumber(i))
+            }
+            for (i in 0 until cues) {
+                cue(timeline.cueTick(i), timeline.cueKind(i), timeline.cueValue(i))
+            }
+        }
+
+        fun build(
+            totalTicks: Int,
+            prepareTicks: Int,
+            maxCountdownSeconds: Int,
+            completionMessage: String
+        ): CueTimeline {
+            if (segmentKinds.size == 0) {
+                segment(0, SEGMENT_WORK, 0)
+            }
+            segmentStarts.add(totalTicks)
+
+            // Cues and segments are both in tick order, so one merge pass indexes them
+            val starts = segmentStarts.toArray()
+            val ticks = cueTicks.toArray()
+            val firstCues = IntArray(starts.size)
+            var cue = 0
+            for (segment in starts.indices) {
+                while (cue < ticks.size && ticks[cue] < starts[segment]) cue++
+                firstCues[segment] = cue
+            }
+            return CueTimeline(
+                totalTicks = totalTicks,
+                prepareTicks = prepareTicks,
+                maxCountdownSeconds = maxCountdownSeconds,
+                completionMessage = completionMessage,
+                cueTicks = ticks,
+                cueKinds = cueKinds.toArray(),
+                cueValues = cueValues.toArray(),
+                segmentStarts = starts,
+                segmentKinds = segmentKinds.toArray(),
+                segmentNumbers = segmentNumbers.toArray(),
+                segmentFirstCues = firstCues
+            )
+        }
+    }
+
+    private class IntList {
+        private var values = IntArray(16)
+        var size = 0
+            private set
+
+        fun add(value: Int) {
+            if (size == values.size) {
+                values = values.copyOf(size * 2)
+            }
+            values[size++] = value
+        }
+
+        fun toArray(): IntArray = values.copyOf(size)
+    }
+
+    companion object {
+        const val CUE_COUNTDOWN = 0
+        const val CUE_DOUBLE_BEEP = 1
+        /** Speaks the name of the segment kind in the cue's value. */
+        const val CUE_ANNOUNCE = 2
+        const val CUE_COMPLETE = 3
+
+        const val SEGMENT_PREPARE = 0
+        const val SEGMENT_WORK = 1
+        const val SEGMENT_HOLD = 2
+        const val SEGMENT_REST = 3
+
+        /**
+         * Compiles [plan] behind an initial countdown of [initialCountdownSeconds].
+         */
+        fun compile(
+            plan: WorkoutPlan,
+            audioEnabled: Boolean,
+            countdownSeconds: Int,
+            initialCountdownSeconds: Int,
+            completionMessage: String
+        ): CueTimeline {
+            val builder = Builder()
+            val start = initialCountdownSeconds.coerceAtLeast(0)
+
+            if (start > 0) {
+                builder.segment(0, SEGMENT_PREPARE, 0)
+                if (audioEnabled) {
+                    for (remaining in minOf(start, countdownSeconds) downTo 1) {
+                        builder.cue(start - remaining, CUE_COUNTDOWN, remaining)
+                    }
+                }
+                // The "go" beep always marks the end of the initial countdown
+                builder.cue(start, CUE_DOUBLE_BEEP)
+            }
+
+            val totalTicks = start + compileRounds(builder, start, 0, plan, audioEnabled, countdownSeconds)
+            builder.cue(totalTicks, CUE_COMPLETE)
+            return builder.build(totalTicks, start, countdownSeconds, completionMessage)
+        }
+
+        /**
+         * [session]'s timeline for the adjusted [plan], for changing a running session.
+         * The round containing [fromTick] and everything after it are compiled again;
+         * everything before is copied across unchanged, so the cost is a copy of the
+         * prefix plus compiling the tail, and ticks before the tail keep their segments
+         * and cues. [plan] must have the same steps as the session's.
+         */
+        fun recompileTail(session: TimerSession, fromTick: Int, plan: WorkoutPlan): CueTimeline {
+            val timeline = session.timeline
+            val start = timeline.prepareTicks
+            val firstRound = (fromTick - start).coerceAtLeast(0) / plan.roundSeconds
+            if (firstRound == 0) {
+                // Nothing worth keeping but the initial countdown; compile it whole
+                return compile(
+                    plan = plan,
+                    audioEnabled = session.audioEnabled,
+                    countdownSeconds = session.countdownSeconds,
+                    initialCountdownSeconds = session.initialCountdownSeconds,
+                    completionMessage = timeline.completionMessage
+                )
+            }
+
+            val tailStart = start + firstRound * plan.roundSeconds
+            val keptSegment = timeline.segmentAt(tailStart)
+            val builder = Builder()
+            builder.copyPrefix(
+                timeline,
+                segments = if (timeline.segmentStart(keptSegment) < tailStart) keptSegment + 1 else keptSegment,
+                cues = timeline.firstCueAtOrAfter(tailStart)
+            )
+            val totalTicks = start + compileRounds(
+                builder, start, firstRound, plan, session.audioEnabled, session.countdownSeconds
+            )
+            builder.cue(totalTicks, CUE_COMPLETE)
+            return builder.build(totalTicks, start, timeline.maxCountdownSeconds, timeline.completionMessage)
+        }
+
+        /**
+         * Rounds from [firstRound] on, each step a segment numbered by its round, with
+         * the cues its flags ask for. A limited plan stops part-way through a step.
+         *
+         * @return the plan's workout length in ticks
+         */
+        private fun compileRounds(
+            builder: Builder,
+            start: Int,
+            firstRound: Int,
+            plan: WorkoutPlan,
+            audioEnabled: Boolean,
+            countdownSeconds: Int
+        ): Int {
+            val end = start + plan.workoutSeconds
+            var base = start + firstRound * plan.roundSeconds
+            for (round in firstRound until plan.rounds) {
+                for (step in plan.steps) {
+                    if (base >= end) return plan.workoutSeconds
+                    val length = minOf(step.seconds, end - base)
+                    builder.segment(base, step.kind, round)
+                    if (audioEnabled) {
+                        compileStepCues(builder, start, base, length, step, countdownSeconds)
+                    }
+                    base += step.seconds
+                }
+            }
+            return plan.workoutSeconds
+        }
+
+        private fun compileStepCues(
+            builder: Builder,
+            start: Int,
+            base: Int,
+            length: Int,
+            step: WorkoutPlan.Step,
+            countdownSeconds: Int
+        ) {
+            val countdown = step.cues and WorkoutPlan.CUE_COUNTDOWN_TO_END != 0
+            // A countdown as long as the step starts with the step itself
+            if (countdown && countdownSeconds >= length) {
+                builder.cue(base, CUE_COUNTDOWN, length)
+            }
+            // The "go" beep already marks the start of the workout
+            if (step.cues and WorkoutPlan.CUE_BEEP_ON_START != 0 && base > start) {
+                builder.cue(base, CUE_DOUBLE_BEEP)
+            }
+            if (step.cues and WorkoutPlan.CUE_ANNOUNCE_ON_START != 0) {
+                builder.cue(base, CUE_ANNOUNCE, step.kind)
+            }
+            if (countdown) {
+                for (remaining in minOf(countdownSeconds, length - 1) downTo 1) {
+                    builder.cue(base + length - remaining, CUE_COUNTDOWN, remaining)
+                }
+            }
+        }
+
+        fun segmentLabel(kind: Int): String = when (kind) {
+            SEGMENT_PREPARE -> "GET READY"
+            SEGMENT_HOLD -> "HOLD"
+            SEGMENT_REST -> "REST"
+            else -> "WORK"
+        }
+    }
+}
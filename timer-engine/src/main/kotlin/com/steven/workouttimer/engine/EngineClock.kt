@@ -0,0 +1,9 @@
+package com.steven.workouttimer.engine
+
+/**
+ * The engine's monotonic time in milliseconds. A `() -> Long` would box every reading,
+ * and a tick reads the clock several times.
+ */
+fun interface EngineClock {
+    operator fun invoke(): Long
+}
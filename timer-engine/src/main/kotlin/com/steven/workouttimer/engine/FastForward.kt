@@ -0,0 +1,124 @@
+package com.steven.workouttimer.engine
+
+/**
+ * Runs a [TimerEngine] on a virtual clock, jumping straight from one wheel deadline to
+ * the next, so a full session plays out in milliseconds with every cue recorded at the
+ * exact virtual time it fired.
+ *
+ * Nothing here touches Android, so it runs on a plain JVM:
+ *
+ * ```
+ * val run = FastForward()
+ * run.start(TimerEngine.compileSession(...))
+ * run.advanceBy(90_000)
+ * run.pause(timerId); run.advanceBy(600_000); run.resume(timerId)
+ * val result = run.runToCompletion()
+ * ```
+ *
+ * Wakeups are exact, so recorded ticks have zero lateness. Use [lateBy] to model a
+ * delayed wakeup and check that the engine catches up without replaying missed cues.
+ */
+class FastForward(startMs: Long = 0L) {
+
+    /** A cue as it fired, with the session position it fired at. */
+    data class CueEvent(
+        val timerId: Long,
+        val atMs: Long,
+        val position: Int,
+        val kind: Int,
+        val value: Int
+    )
+
+    data class Result(
+        val cues: List<CueEvent>,
+        val passes: Long,
+        val ticks: Long,
+        val virtualMs: Long,
+        val cpuNanos: Long
+    )
+
+    /** Current virtual monotonic time. */
+    var nowMs = startMs
+        private set
+
+    private val originMs = startMs
+    private val cues = ArrayList<CueEvent>()
+    private var passes = 0L
+    private var ticks = 0L
+    private var cpuNanos = 0L
+    private var extraLatenessMs = 0L
+
+    /** Sessions completed so far, in completion order. */
+    val completed = ArrayList<Long>()
+
+    val engine = TimerEngine({ nowMs }, object : TimerEngine.Listener {
+        override fun onTick(running: ActiveSession) {
+            ticks++
+        }
+
+        override fun onCue(running: ActiveSession, kind: Int, value: Int) {
+            cues.add(CueEvent(running.session.timerId, nowMs, running.position, kind, value))
+        }
+
+        override fun onComplete(running: ActiveSession) {
+            completed.add(running.session.timerId)
+        }
+
+        override fun onPassComplete(segmentsChanged: Boolean, sessionsEnded: Boolean) {
+            passes++
+        }
+    })
+
+    fun start(session: TimerSession): ActiveSession = engine.start(session)
+
+    fun pause(timerId: Long): Boolean = engine.find(timerId)?.let { engine.pause(it) } ?: false
+
+    fun resume(timerId: Long): Boolean = engine.find(timerId)?.let { engine.resume(it) } ?: false
+
+    fun tickOf(timerId: Long): TimerTick = engine.find(timerId)?.tick ?: TimerTick.IDLE
+
+    /** Delays every following wakeup by [latenessMs] past its deadline. */
+    fun lateBy(latenessMs: Long) {
+        extraLatenessMs = latenessMs
+    }
+
+    /** Fires every deadline up to [targetMs] in order, then leaves the clock there. */
+    fun advanceTo(targetMs: Long) {
+        fireUntil(targetMs)
+        nowMs = maxOf(nowMs, targetMs)
+    }
+
+    fun advanceBy(durationMs: Long) {
+        advanceTo(nowMs + durationMs)
+    }
+
+    /**
+     * Runs until nothing is left ticking, leaving the clock at the last pass. Paused
+     * sessions stay paused.
+     */
+    fun runToCompletion(): Result {
+        fireUntil(Long.MAX_VALUE)
+        return result()
+    }
+
+    private fun fireUntil(targetMs: Long) {
+        val started = System.nanoTime()
+        while (true) {
+            val deadline = engine.nextDeadlineMs()
+            if (deadline == Long.MAX_VALUE) break
+            val wakeAt = maxOf(nowMs, deadline + extraLatenessMs)
+            if (wakeAt > targetMs) break
+            nowMs = wakeAt
+            engine.runPass(nowMs)
+        }
+        cpuNanos += System.nanoTime() - started
+    }
+
+    fun result(): Result = Result(
+        cues = ArrayList(cues),
+        passes = passes,
+        ticks = ticks,
+        virtualMs = nowMs - originMs,
+        cpuNanos = cpuNanos
+    )
+}
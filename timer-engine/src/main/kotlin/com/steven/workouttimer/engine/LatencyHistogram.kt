@@ -0,0 +1,88 @@
+package com.steven.workouttimer.engine
+
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+
+/**
+ * Fixed-memory, lock-free histogram of millisecond latencies.
+ *
+ * Buckets are log-linear: exact below 32 ms, then 16 buckets per power of two, so any
+ * recorded value is reported within 1/16 of its true size. Values above [MAX_VALUE_MS]
+ * land in the last bucket. Recording never allocates or blocks, and readers on other
+ * threads see a consistent-enough view for percentiles without stopping the writer.
+ */
+class LatencyHistogram {
+    private val buckets = AtomicLongArray(BUCKET_COUNT)
+    private val total = AtomicLong()
+    private val max = AtomicLong()
+
+    val count: Long
+        get() = total.get()
+
+    val maxMs: Long
+        get() = max.get()
+
+    /** Records one latency; negative values count as zero. */
+    fun record(latencyMs: Long) {
+        val value = latencyMs.coerceIn(0L, MAX_VALUE_MS)
+        buckets.incrementAndGet(bucketOf(value))
+        total.incrementAndGet()
+        var current = max.get()
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get()
+        }
+    }
+
+    /**
+     * The smallest bucket bound at or below which [percentile] percent of recorded values
+     * fall, or 0 if nothing has been recorded.
+     */
+    fun percentileMs(percentile: Double): Long {
+        val count = total.get()
+        if (count == 0L) return 0L
+        val target = maxOf(1L, Math.ceil(count * percentile / 100.0).toLong())
+        var seen = 0L
+        for (bucket in 0 until BUCKET_COUNT) {
+            seen += buckets.get(bucket)
+            if (seen >= target) return minOf(upperBoundOf(bucket), max.get())
+        }
+        return max.get()
+    }
+
+    fun reset() {
+        for (bucket in 0 until BUCKET_COUNT) {
+            buckets.set(bucket, 0L)
+        }
+        total.set(0L)
+        max.set(0L)
+    }
+
+    /** One line summary, e.g. `n=7200 p50=1 p90=2 p99=6 max=41`. */
+    fun summary(): String =
+        "n=$count p50=${percentileMs(50.0)} p90=${percentileMs(90.0)} " +
+            "p99=${percentileMs(99.0)} max=$maxMs"
+
+    companion object {
+        private const val SUB_BUCKET_BITS = 4
+        private const val SUB_BUCKETS = 1 shl SUB_BUCKET_BITS
+
+        /** About 17 minutes; anything later is clamped. */
+        const val MAX_VALUE_MS = (1L shl 20) - 1
+
+        internal val BUCKET_COUNT = bucketOf(MAX_VALUE_MS) + 1
+
+        internal fun bucketOf(value: Long): Int {
+            if (value < SUB_BUCKETS) return value.toInt()
+            val magnitude = 63 - java.lang.Long.numberOfLeadingZeros(value)
+            val shift = magnitude - SUB_BUCKET_BITS
+            return SUB_BUCKETS * (shift + 1) + ((value shr shift) - SUB_BUCKETS).toInt()
+        }
+
+        internal fun upperBoundOf(bucket: Int): Long {
+            if (bucket < SUB_BUCKETS) return bucket.toLong()
+            val shift = bucket / SUB_BUCKETS - 1
+            val lower = (SUB_BUCKETS + bucket % SUB_BUCKETS).toLong() shl shift
+            return lower + (1L shl shift) - 1
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.steven.workouttimer.engine
+
+/**
+ * Lateness of delivered ticks relative to their scheduled deadlines.
+ */
+data class TickStats(
+    val tickCount: Long = 0,
+    val lastLatenessMs: Long = 0,
+    val maxLatenessMs: Long = 0,
+    val totalLatenessMs: Long = 0
+) {
+    val meanLatenessMs: Double
+        get() = if (tickCount == 0L) 0.0 else totalLatenessMs.toDouble() / tickCount
+}
+
+/**
+ * Millisecond session clock that schedules ticks against a monotonic anchor.
+ *
+ * Elapsed time is `clock() - anchor` while running and frozen while paused; resuming
+ * moves the anchor so elapsed time continues from the exact millisecond it stopped at.
+ * Tick `n` is due when elapsed time reaches `n * periodMs`, so time spent handling a
+ * tick shortens the next sleep rather than adding to it, and a pause mid-second
+ * neither loses nor gains the fraction already elapsed.
+ *
+ * The clock does not sleep itself; [TickSource] waits for the earliest deadline
+ * across all running sessions.
+ */
+class TickScheduler(
+    private val clock: EngineClock,
+    private val periodMs: Long = 1000L
+) {
+    /** Monotonic time at which elapsed time was zero, as of the last start or resume. */
+    var anchorMs = 0L
+        private set
+
+    /** Elapsed time held while paused. */
+    var frozenElapsedMs = 0L
+        private set
+
+    @Volatile
+    var isPaused = false
+        private set
+
+    // Kept as primitives so recording a tick does not allocate; read via [stats]
+    @Volatile private var tickCount = 0L
+    @Volatile private var lastLatenessMs = 0L
+    @Volatile private var maxLatenessMs = 0L
+    @Volatile private var totalLatenessMs = 0L
+
+    val stats: TickStats
+        get() = TickStats(tickCount, lastLatenessMs, maxLatenessMs, totalLatenessMs)
+
+    /**
+     * Starts a new session whose elapsed time is zero at [anchorMs], which may lie
+     * slightly in the future so the session's ticks line up with others.
+     */
+    fun start(anchorMs: Long = clock()) {
+        this.anchorMs = anchorMs
+        frozenElapsedMs = 0L
+        isPaused = false
+        tickCount = 0L
+        lastLatenessMs = 0L
+        maxLatenessMs = 0L
+        totalLatenessMs = 0L
+    }
+
+    /**
+     * Picks up a session saved by the app's session checkpoint at exactly the clock state it was
+     * saved with. Lateness stats start over.
+     */
+    fun restore(anchorMs: Long, isPaused: Boolean, frozenElapsedMs: Long) {
+        start(anchorMs)
+        this.frozenElapsedMs = frozenElapsedMs
+        this.isPaused = isPaused
+    }
+
+    fun elapsedMs(): Long = if (isPaused) frozenElapsedMs else clock() - anchorMs
+
+    /**
+     * Freezes elapsed time at the current millisecond.
+     */
+    fun pause() {
+        if (isPaused) return
+        frozenElapsedMs = clock() - anchorMs
+        isPaused = true
+    }
+
+    /**
+     * Continues from the frozen elapsed time.
+     */
+    fun resume() {
+        if (!isPaused) return
+        anchorMs = clock() - frozenElapsedMs
+        isPaused = false
+    }
+
+    /**
+     * Moves elapsed time to exactly the start of [tick], paused or not, so that tick
+     * falls due now.
+     */
+    fun seekTo(tick: Int) {
+        val targetMs = tick * periodMs
+        if (isPaused) {
+            frozenElapsedMs = targetMs
+        } else {
+            anchorMs = clock() - targetMs
+        }
+    }
+
+    /**
+     * Monotonic time at which [tick] is due, assuming no further pauses.
+     */
+    fun realtimeOf(tick: Int): Long = anchorMs + tick * periodMs
+
+    /**
+     * The latest tick that is already due, or -1 before the session's first tick.
+     */
+    fun dueTick(): Int = Math.floorDiv(elapsedMs(), periodMs).toInt()
+
+    /**
+     * Records how late [tick] was handled.
+     *
+     * @return the lateness in milliseconds
+     */
+    fun recordTick(tick: Int): Long {
+        val lateness = elapsedMs() - tick * periodMs
+        tickCount++
+        lastLatenessMs = lateness
+        if (lateness > maxLatenessMs) maxLatenessMs = lateness
+        totalLatenessMs += lateness
+        return lateness
+    }
+}
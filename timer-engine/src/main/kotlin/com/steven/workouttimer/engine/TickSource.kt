@@ -0,0 +1,69 @@
+package com.steven.workouttimer.engine
+
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.withTimeoutOrNull
+
+/**
+ * The single sleep of the engine loop, shared by every running session and every
+ * other timer on the engine's [TimingWheel].
+ *
+ * New sessions are anchored on a common one-second grid, so any number of sessions
+ * started while others run fall due at the same instants and cost one wakeup per
+ * second between them. A resumed session keeps its exact sub-second position and may
+ * tick on its own phase until it finishes.
+ */
+class TickSource(
+    private val clock: EngineClock,
+    private val periodMs: Long = 1000L
+) {
+    private val wakeups = Channel<Unit>(Channel.CONFLATED)
+    private var gridOriginMs = 0L
+
+    /** Times the loop has woken since the last [resetWakeupCount]. */
+    @Volatile
+    var wakeupCount = 0L
+        private set
+
+    fun resetWakeupCount() {
+        wakeupCount = 0L
+    }
+
+    /**
+     * Anchor for a session starting now. The first session defines the grid; later
+     * ones wait for its next boundary, at most one period away.
+     */
+    fun anchorForNewSession(joinGrid: Boolean): Long {
+        val now = clock()
+        if (!joinGrid) {
+            gridOriginMs = now
+            return now
+        }
+        val periods = Math.floorDiv(now - gridOriginMs + periodMs - 1, periodMs)
+        return gridOriginMs + periods * periodMs
+    }
+
+    /**
+     * Makes a pending [sleepUntil] return now. Coroutine delays are measured in uptime,
+     * which stops while the device sleeps, so an alarm that wakes the CPU must call this
+     * to catch up with real time. Also used when sessions start, pause or resume.
+     */
+    fun wake() {
+        wakeups.trySend(Unit)
+    }
+
+    /**
+     * Suspends until the monotonic time [deadlineMs] or the next [wake], whichever is
+     * first. [Long.MAX_VALUE] sleeps until woken.
+     */
+    suspend fun sleepUntil(deadlineMs: Long) {
+        if (deadlineMs == Long.MAX_VALUE) {
+            wakeups.receive()
+        } else {
+            val sleepMs = deadlineMs - clock()
+            if (sleepMs > 0) {
+                withTimeoutOrNull(sleepMs) { wakeups.receive() }
+            }
+        }
+        wakeupCount++
+    }
+}
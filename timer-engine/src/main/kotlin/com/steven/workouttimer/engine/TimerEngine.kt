@@ -0,0 +1,449 @@
+package com.steven.workouttimer.engine
+
+import java.util.concurrent.CopyOnWriteArrayList
+
+/**
+ * The timer engine without Android: the running sessions, their clocks, the timing
+ * wheel that drives them and cue dispatch.
+ *
+ * Time comes only from the injected [clock] and waiting only from [run], which sleeps
+ * on a [TickSource] built on the same clock. Under a virtual clock the engine runs
+ * unchanged, either by calling [runPass] directly as [FastForward] does or by running
+ * [run] on a coroutine test scheduler whose time backs [clock].
+ *
+ * Not thread-safe; every call except reading [sessions] must come from one thread.
+ */
+class TimerEngine(
+    private val clock: EngineClock,
+    private val listener: Listener
+) {
+    interface Listener {
+        /** [running]'s [ActiveSession.tick] changed. */
+        fun onTick(running: ActiveSession)
+
+        /** A cue of [running] is due now. [kind] is one of the `CueTimeline.CUE_*` constants. */
+        fun onCue(running: ActiveSession, kind: Int, value: Int)
+
+        /**
+         * A cue of [running] falls due on the next tick, at [dueMs] on the engine clock.
+         * Returning true takes it: the listener plays it on time by itself and [onCue]
+         * is not called for it, unless [onCuesRevoked] hands it back first.
+         */
+        fun onCueAhead(running: ActiveSession, kind: Int, value: Int, dueMs: Long): Boolean = false
+
+        /**
+         * Cues [running]'s listener took ahead no longer fall due when announced, as the
+         * session was paused, moved, retimed or removed; anything scheduled for them
+         * should be withdrawn.
+         */
+        fun onCuesRevoked(running: ActiveSession) {}
+
+        /** [running] reached the end of its timeline and has been removed. */
+        fun onComplete(running: ActiveSession)
+
+        /** A wheel pass finished firing everything that was due. */
+        fun onPassComplete(segmentsChanged: Boolean, sessionsEnded: Boolean)
+    }
+
+    private val tickSource = TickSource(clock)
+    private val wheel = TimingWheel()
+    private val active = CopyOnWriteArrayList<ActiveSession>()
+    private var passSegmentsChanged = false
+    private var passSessionsEnded = false
+
+    /** Running sessions in start order. Safe to read from any thread. */
+    val sessions: List<ActiveSession>
+        get() = active
+
+    val hasPendingWork: Boolean
+        get() = wheel.pendingCount > 0
+
+    /** Times [run] has woken since the last [resetMeters]. */
+    val wakeupCount: Long
+        get() = tickSource.wakeupCount
+
+    /** How late each session tick was handled relative to its deadline, across sessions. */
+    val tickLateness = LatencyHistogram()
+
+    /** Delay from each cue's scheduled time until the listener had dispatched it. */
+    val cueDelay = LatencyHistogram()
+
+    fun resetMeters() {
+        tickSource.resetWakeupCount()
+        tickLateness.reset()
+        cueDelay.reset()
+    }
+
+    fun find(timerId: Long): ActiveSession? = active.firstOrNull { it.session.timerId == timerId }
+
+    /**
+     * Starts [session] at tick 0. It joins the running sessions' tick grid, so it adds
+     * no wakeups of its own.
+     */
+    fun start(session: TimerSession): ActiveSession {
+        val sessionClock = TickScheduler(clock)
+        sessionClock.start(tickSource.anchorForNewSession(joinGrid = active.any { it.isTicking }))
+        val running = add(session, sessionClock)
+        wheel.schedule(running.tickTimer, sessionClock.realtimeOf(0))
+        listener.onTick(running)
+        return running
+    }
+
+    /**
+     * Brings back a session saved by the app's session checkpoint at the exact position its
+     * anchor puts it at now, in O(log n) with no replay. Cues that fell due in the
+     * meantime are skipped; the rest fire on schedule.
+     *
+     * @return the session, or null if it would already have finished
+     */
+    fun restore(
+        session: TimerSession,
+        anchorMs: Long,
+        isPaused: Boolean,
+        frozenElapsedMs: Long,
+        pausedAtMs: Long
+    ): ActiveSession? {
+        val compiled = session.timeline
+        val sessionClock = TickScheduler(clock)
+        sessionClock.restore(anchorMs, isPaused, frozenElapsedMs)
+        val due = sessionClock.dueTick()
+        if (due >= compiled.totalTicks) return null
+
+        val running = add(session, sessionClock)
+        running.pausedAtMs = pausedAtMs
+        if (due >= 0) {
+            running.position = due
+            running.nextTick = due + 1
+            running.cueCursor = compiled.firstCueAtOrAfter(due + 1)
+            running.segmentCursor = compiled.segmentAt(due)
+            running.tick = TimerTick.at(compiled, running.segmentCursor, due)
+        }
+        if (isPaused) {
+            running.tick = running.tick.paused(Math.floorMod(frozenElapsedMs, 1000L).toInt())
+        } else {
+            wheel.schedule(running.tickTimer, sessionClock.realtimeOf(running.nextTick))
+        }
+        listener.onTick(running)
+        return running
+    }
+
+    private fun add(session: TimerSession, sessionClock: TickScheduler): ActiveSession {
+        val running = ActiveSession(session, sessionClock)
+        running.tickTimer = TimingWheel.Timer { onSessionTick(running) }
+        running.tick = TimerTick.at(session.timeline, 0, 0)
+        active.add(running)
+        return running
+    }
+
+    /** Drops [running] without firing anything further. */
+    fun remove(running: ActiveSession) {
+        wheel.cancel(running.tickTimer)
+        active.remove(running)
+        revokeAhead(running)
+    }
+
+    /** @return false if [running] was already paused */
+    fun pause(running: ActiveSession): Boolean {
+        if (!running.isTicking) return false
+        running.clock.pause()
+        wheel.cancel(running.tickTimer)
+        revokeAhead(running)
+        running.pausedAtMs = clock()
+        val msInSecond = Math.floorMod(running.clock.elapsedMs(), 1000L).toInt()
+        publish(running, running.tick.paused(msInSecond))
+        return true
+    }
+
+    /** @return false if [running] was not paused */
+    fun resume(running: ActiveSession): Boolean {
+        if (running.isTicking) return false
+        running.clock.resume()
+        wheel.schedule(running.tickTimer, running.clock.realtimeOf(running.nextTick))
+        publish(running, running.tick.resumed())
+        return true
+    }
+
+    /**
+     * Jumps [running] to the start of the next segment: the next minute in weightlift
+     * mode, the next hold or rest phase in climbing mode. Skipping past the last
+     * segment finishes the session.
+     */
+    fun skipForward(running: ActiveSession) {
+        seek(running, running.segmentCursor + 1)
+    }
+
+    /**
+     * Jumps [running] back to the start of its current segment, or to the start of
+     * the previous one if the current segment has only just begun.
+     */
+    fun skipBack(running: ActiveSession) {
+        val current = running.segmentCursor
+        val intoSegment = running.position - running.timeline.segmentStart(current)
+        seek(running, if (intoSegment > SKIP_BACK_GRACE_TICKS) current else maxOf(current - 1, 0))
+    }
+
+    /**
+     * Moves [running] to the start of segment [target] in constant time. The clock,
+     * the cursors and the tick are set straight from the timeline's segment index, so
+     * no ticks are replayed and none of the skipped cues fire. Cues from the segment
+     * start on fire as usual, starting with any at the start itself; a paused session
+     * stays paused and fires them once resumed.
+     *
+     * Seeking to [CueTimeline.segmentCount] completes the session immediately.
+     */
+    fun seek(running: ActiveSession, target: Int) {
+        val compiled = running.timeline
+        val segment = target.coerceIn(0, compiled.segmentCount)
+        revokeAhead(running)
+        running.cueCursor = compiled.segmentFirstCue(segment)
+        if (segment == compiled.segmentCount) {
+            wheel.cancel(running.tickTimer)
+            complete(running)
+            return
+        }
+
+        val start = compiled.segmentStart(segment)
+        running.clock.seekTo(start)
+        running.segmentCursor = segment
+        running.position = start - 1
+        running.nextTick = start
+        val tick = TimerTick.at(compiled, segment, start)
+        if (running.isTicking) {
+            wheel.schedule(running.tickTimer, running.clock.realtimeOf(start))
+            publish(running, tick)
+        } else {
+            publish(running, tick.paused(0))
+        }
+    }
+
+    /**
+     * Lengthens or shortens a running session by [deltaSeconds], ending part-way
+     * through a round if need be. The new length never cuts into the current second
+     * and is capped at [MAX_WORKOUT_SECONDS].
+     *
+     * @return false if nothing changed
+     */
+    fun adjustTime(running: ActiveSession, deltaSeconds: Int): Boolean {
+        val plan = running.session.plan
+        val elapsed = running.position + 1 - running.timeline.prepareTicks
+        val longest = minOf(MAX_WORKOUT_SECONDS, (TimerTick.MAX_ROUND + 1) * plan.roundSeconds)
+        val workoutSeconds = (plan.workoutSeconds + deltaSeconds)
+            .coerceIn(maxOf(elapsed, 1), maxOf(plan.workoutSeconds, longest))
+        if (workoutSeconds == plan.workoutSeconds) return false
+        retime(running, plan.withWorkoutSeconds(workoutSeconds))
+        return true
+    }
+
+    /**
+     * Adds [delta] whole rounds to a running session, keeping at least the round in
+     * progress and at most [MAX_ROUNDS].
+     *
+     * @return false if nothing changed
+     */
+    fun adjustRounds(running: ActiveSession, delta: Int): Boolean {
+        val plan = running.session.plan
+        val currentRound = (running.position - running.timeline.prepareTicks).coerceAtLeast(0) / plan.roundSeconds
+        val rounds = (plan.rounds + delta).coerceIn(currentRound + 1, maxOf(plan.rounds, MAX_ROUNDS))
+        if (rounds == plan.rounds && plan.limitSeconds == 0) return false
+        retime(running, plan.copy(rounds = rounds, limitSeconds = 0))
+        return true
+    }
+
+    /**
+     * Swaps in the timeline for [plan]. Only the part from the current round on is
+     * compiled again, and the clock is untouched, so the session carries on from the
+     * same tick; the cursors are re-pointed into the new timeline.
+     */
+    private fun retime(running: ActiveSession, plan: WorkoutPlan) {
+        val session = running.session
+        val position = running.position.coerceAtLeast(0)
+        val compiled = CueTimeline.recompileTail(session, position, plan)
+        revokeAhead(running)
+        running.session = session.copy(plan = plan, timeline = compiled)
+        running.cueCursor = compiled.firstCueAtOrAfter(running.nextTick)
+        running.segmentCursor = compiled.segmentAt(position)
+        val tick = TimerTick.at(compiled, running.segmentCursor, position)
+        if (running.isTicking) {
+            publish(running, tick)
+        } else {
+            publish(running, tick.paused(Math.floorMod(running.clock.elapsedMs(), 1000L).toInt()))
+        }
+    }
+
+    /**
+     * Makes a pending [run] re-read the clock now, e.g. after deadlines changed or an
+     * alarm woke the CPU.
+     */
+    fun wake() {
+        tickSource.wake()
+    }
+
+    /**
+     * Sleeps until each wheel deadline and fires it, until no session is ticking.
+     */
+    suspend fun run() {
+        while (wheel.pendingCount > 0) {
+            // One sleep for everything on the wheel; paused sessions have no timer
+            tickSource.sleepUntil(wheel.nextDeadlineMs())
+            runPass(clock())
+        }
+    }
+
+    /** Earliest pending deadline, or [Long.MAX_VALUE] when nothing is ticking. */
+    fun nextDeadlineMs(): Long = wheel.nextDeadlineMs()
+
+    /**
+     * Fires everything due at [nowMs], then reports the pass to the listener.
+     */
+    fun runPass(nowMs: Long) {
+        passSegmentsChanged = false
+        passSessionsEnded = false
+        wheel.advance(nowMs)
+        listener.onPassComplete(passSegmentsChanged, passSessionsEnded)
+    }
+
+    /**
+     * Wheel callback for [running]'s next tick. The wheel may fire up to one slot
+     * early so neighbouring deadlines share a wakeup; the session still moves to the
+     * tick it was scheduled for, or further if the wakeup was late.
+     */
+    private fun onSessionTick(running: ActiveSession) {
+        val due = maxOf(running.clock.dueTick(), running.nextTick)
+        if (due >= running.timeline.totalTicks) {
+            complete(running)
+            passSessionsEnded = true
+            return
+        }
+        if (advance(running, due)) {
+            passSegmentsChanged = true
+        }
+        running.nextTick = due + 1
+        wheel.schedule(running.tickTimer, running.clock.realtimeOf(running.nextTick))
+        offerAhead(running)
+    }
+
+    /**
+     * Moves [running] to tick [position], firing its cues. Catching up after a late
+     * wakeup jumps straight to the due tick and skips the cues that were missed.
+     *
+     * @return whether the session entered a new segment
+     */
+    private fun advance(running: ActiveSession, position: Int): Boolean {
+        val compiled = running.timeline
+        running.position = position
+        dispatchCues(running, position)
+        var segment = running.segmentCursor
+        while (compiled.segmentEnd(segment) <= position) {
+            segment++
+        }
+        val segmentChanged = segment != running.segmentCursor
+        running.segmentCursor = segment
+        publish(running, TimerTick.at(compiled, segment, position))
+        tickLateness.record(running.clock.recordTick(position))
+        return segmentChanged
+    }
+
+    private fun complete(running: ActiveSession) {
+        val compiled = running.timeline
+        // Fires the completion cue at totalTicks
+        dispatchCues(running, compiled.totalTicks)
+        publish(running, running.tick.completed(compiled.totalTicks - compiled.prepareTicks))
+        remove(running)
+        listener.onComplete(running)
+    }
+
+    private fun dispatchCues(running: ActiveSession, position: Int) {
+        val compiled = running.timeline
+        while (running.cueCursor < compiled.cueCount && compiled.cueTick(running.cueCursor) <= position) {
+            val cue = running.cueCursor++
+            if (running.aheadTaken != 0L && takeBackAhead(running, cue)) continue
+            if (compiled.cueTick(cue) < position) continue
+            listener.onCue(running, compiled.cueKind(cue), compiled.cueValue(cue))
+            cueDelay.record(clock() - running.clock.realtimeOf(compiled.cueTick(cue)))
+        }
+    }
+
+    /**
+     * Offers the listener the cues of [running]'s next tick, so audio can be lined up
+     * to the exact moment instead of starting whenever the tick is handled.
+     */
+    private fun offerAhead(running: ActiveSession) {
+        val compiled = running.timeline
+        val first = running.cueCursor
+        var taken = 0L
+        var cue = first
+        while (cue < compiled.cueCount && cue - first < Long.SIZE_BITS &&
+            compiled.cueTick(cue) == running.nextTick
+        ) {
+            val dueMs = running.clock.realtimeOf(running.nextTick)
+            if (listener.onCueAhead(running, compiled.cueKind(cue), compiled.cueValue(cue), dueMs)) {
+                taken = taken or (1L shl (cue - first))
+            }
+            cue++
+        }
+        running.aheadFirstCue = first
+        running.aheadTaken = taken
+    }
+
+    /** Whether [cue] was taken ahead, clearing it so it is only skipped once. */
+    private fun takeBackAhead(running: ActiveSession, cue: Int): Boolean {
+        val bit = cue - running.aheadFirstCue
+        if (bit !in 0 until Long.SIZE_BITS) return false
+        val mask = 1L shl bit
+        if (running.aheadTaken and mask == 0L) return false
+        running.aheadTaken = running.aheadTaken and mask.inv()
+        return true
+    }
+
+    private fun revokeAhead(running: ActiveSession) {
+        if (running.aheadTaken == 0L) return
+        running.aheadTaken = 0L
+        listener.onCuesRevoked(running)
+    }
+
+    private fun publish(running: ActiveSession, tick: TimerTick) {
+        running.tick = tick
+        listener.onTick(running)
+    }
+
+    companion object {
+        // Skipping back this far into a segment or less goes to the previous one
+        private const val SKIP_BACK_GRACE_TICKS = 1
+
+        /** Longest a session can be adjusted to: 24 hours. */
+        const val MAX_WORKOUT_SECONDS = 24 * 60 * 60
+
+        /** Most rounds a session can be adjusted to. */
+        const val MAX_ROUNDS = 999
+
+        fun compileSession(
+            timerId: Long,
+            timerName: String,
+            timerMode: TimerMode,
+            plan: WorkoutPlan,
+            audioEnabled: Boolean,
+            audioType: AudioType,
+            countdownSeconds: Int,
+            initialCountdownSeconds: Int
+        ): TimerSession {
+            val compiled = CueTimeline.compile(
+                plan = plan,
+                audioEnabled = audioEnabled,
+                countdownSeconds = countdownSeconds,
+                initialCountdownSeconds = initialCountdownSeconds,
+                completionMessage = timerMode.completionMessage
+            )
+            return TimerSession(
+                timerId = timerId,
+                timerName = timerName,
+                timerMode = timerMode,
+                plan = plan,
+                audioEnabled = audioEnabled,
+                audioType = audioType,
+                countdownSeconds = countdownSeconds,
+                initialCountdownSeconds = initialCountdownSeconds,
+                timeline = compiled
+            )
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.steven.workouttimer.engine
+
+/**
+ * The preset a timer's [WorkoutPlan] was made from. Only the wording differs at run
+ * time; the plan alone decides the segments and cues.
+ */
+enum class TimerMode(val roundLabel: String, val completionMessage: String) {
+    WEIGHTLIFT("Minute", "Workout complete!"),
+    CLIMBING("Rep", "Climbing workout complete!"),
+    TABATA("Round", "Tabata complete!"),
+    EMOM("Round", "Workout complete!"),
+    CUSTOM("Round", "Workout complete!")
+}
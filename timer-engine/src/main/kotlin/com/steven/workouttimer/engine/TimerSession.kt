@@ -0,0 +1,170 @@
+package com.steven.workouttimer.engine
+
+/**
+ * Everything about a running session that stays fixed from tick to tick. Published
+ * when the session starts and again if its length is adjusted; the per-second
+ * changes live in [TimerTick].
+ */
+data class TimerSession(
+    val timerId: Long,
+    val timerName: String,
+    val timerMode: TimerMode,
+    val plan: WorkoutPlan,
+    val audioEnabled: Boolean,
+    val audioType: AudioType,
+    val countdownSeconds: Int,
+    val initialCountdownSeconds: Int,
+    val timeline: CueTimeline
+) {
+    /** Length of the workout proper, without the initial countdown. */
+    val totalSeconds: Int
+        get() = timeline.totalTicks - timeline.prepareTicks
+
+    val totalRounds: Int
+        get() = plan.rounds
+
+    /** "Minute 3/10", "Rep 2/6" or "Round 5/8", for the round [tick] is in. */
+    fun progressLabel(tick: TimerTick): String = when (tick.segmentKind) {
+        CueTimeline.SEGMENT_PREPARE -> "Get ready"
+        else -> "${timerMode.roundLabel} ${tick.currentRound + 1}/$totalRounds"
+    }
+
+    /**
+     * Milliseconds since the session started, including the initial countdown; frozen
+     * at the exact millisecond while [tick] is paused.
+     */
+    fun elapsedMs(tick: TimerTick): Long {
+        val position = if (tick.isInInitialCountdown) {
+            timeline.prepareTicks - tick.segmentRemaining
+        } else {
+            timeline.prepareTicks + tick.currentSecond
+        }
+        return position * 1000L + tick.pausedMsInSecond
+    }
+}
+
+/**
+ * The part of the timer state that changes every tick, packed into a single [Long] so
+ * the tick loop can produce it without allocating.
+ *
+ * Layout, from the least significant bit: workout second (20 bits), milliseconds into
+ * the second at which a pause froze the clock (10), segment number (12), seconds left
+ * in the segment (12), segment kind (3), then the running, paused and complete flags.
+ * The properties below decode it for readers; none of them allocate either.
+ */
+@JvmInline
+value class TimerTick(val packed: Long) {
+    /** Seconds into the workout proper; stays 0 during the initial countdown. */
+    val currentSecond: Int
+        get() = field(SECOND_SHIFT, SECOND_BITS)
+
+    /** Fraction of the current second already elapsed when the session was paused. */
+    val pausedMsInSecond: Int
+        get() = field(MILLIS_SHIFT, MILLIS_BITS)
+
+    // Current segment of the session's CueTimeline
+    val segmentKind: Int
+        get() = field(KIND_SHIFT, KIND_BITS)
+
+    val segmentNumber: Int
+        get() = field(NUMBER_SHIFT, NUMBER_BITS)
+
+    val segmentRemaining: Int
+        get() = field(REMAINING_SHIFT, REMAINING_BITS)
+
+    val isRunning: Boolean
+        get() = packed and RUNNING != 0L
+
+    val isPaused: Boolean
+        get() = packed and PAUSED != 0L
+
+    val isComplete: Boolean
+        get() = packed and COMPLETE != 0L
+
+    val isInInitialCountdown: Boolean
+        get() = segmentKind == CueTimeline.SEGMENT_PREPARE
+
+    val initialCountdownRemaining: Int
+        get() = if (isInInitialCountdown) segmentRemaining else 0
+
+    /** Round of the workout plan; 0 during the initial countdown. */
+    val currentRound: Int
+        get() = if (isInInitialCountdown) 0 else segmentNumber
+
+    /** This tick frozen [msInSecond] milliseconds into its second. */
+    fun paused(msInSecond: Int): TimerTick = TimerTick(
+        (packed and MILLIS_MASK.inv()) or PAUSED or
+            ((msInSecond.toLong() and mask(MILLIS_BITS)) shl MILLIS_SHIFT)
+    )
+
+    fun resumed(): TimerTick = TimerTick(packed and (PAUSED or MILLIS_MASK).inv())
+
+    /** The final tick of a session that ran to [currentSecond]. */
+    fun completed(currentSecond: Int): TimerTick = TimerTick(
+        (packed and (SECOND_MASK or MILLIS_MASK or RUNNING or PAUSED).inv()) or COMPLETE or
+            ((currentSecond.toLong() and mask(SECOND_BITS)) shl SECOND_SHIFT)
+    )
+
+    private fun field(shift: Int, bits: Int): Int = ((packed ushr shift) and mask(bits)).toInt()
+
+    override fun toString(): String =
+        "TimerTick(second=$currentSecond, segment=$segmentKind/$segmentNumber, " +
+            "remaining=$segmentRemaining, running=$isRunning, paused=$isPaused, complete=$isComplete)"
+
+    companion object {
+        private const val SECOND_SHIFT = 0
+        private const val SECOND_BITS = 20
+        private const val MILLIS_SHIFT = 20
+        private const val MILLIS_BITS = 10
+        private const val NUMBER_SHIFT = 30
+        private const val NUMBER_BITS = 12
+        private const val REMAINING_SHIFT = 42
+        private const val REMAINING_BITS = 12
+        private const val KIND_SHIFT = 54
+        private const val KIND_BITS = 3
+        private const val RUNNING = 1L shl 57
+        private const val PAUSED = 1L shl 58
+        private const val COMPLETE = 1L shl 59
+
+        /** Highest round number a tick can carry. */
+        const val MAX_ROUND = (1 shl NUMBER_BITS) - 1
+
+        private const val SECOND_MASK = ((1L shl SECOND_BITS) - 1) shl SECOND_SHIFT
+        private const val MILLIS_MASK = ((1L shl MILLIS_BITS) - 1) shl MILLIS_SHIFT
+
+        /** No session: a stopped tick in a work segment. */
+        val IDLE: TimerTick = pack(segmentKind = CueTimeline.SEGMENT_WORK)
+
+        private fun mask(bits: Int): Long = (1L shl bits) - 1
+
+        fun pack(
+            currentSecond: Int = 0,
+            segmentKind: Int = CueTimeline.SEGMENT_WORK,
+            segmentNumber: Int = 0,
+            segmentRemaining: Int = 0,
+            isRunning: Boolean = false,
+            isPaused: Boolean = false,
+            isComplete: Boolean = false
+        ): TimerTick {
+            var packed = ((currentSecond.toLong() and mask(SECOND_BITS)) shl SECOND_SHIFT) or
+                ((segmentNumber.toLong() and mask(NUMBER_BITS)) shl NUMBER_SHIFT) or
+                ((segmentRemaining.toLong() and mask(REMAINING_BITS)) shl REMAINING_SHIFT) or
+                ((segmentKind.toLong() and mask(KIND_BITS)) shl KIND_SHIFT)
+            if (isRunning) packed = packed or RUNNING
+            if (isPaused) packed = packed or PAUSED
+            if (isComplete) packed = packed or COMPLETE
+            return TimerTick(packed)
+        }
+
+        /**
+         * The running tick at [position] within [segment] of [timeline].
+         */
+        fun at(timeline: CueTimeline, segment: Int, position: Int): TimerTick = pack(
+            currentSecond = (position - timeline.prepareTicks).coerceAtLeast(0),
+            segmentKind = timeline.segmentKind(segment),
+            segmentNumber = timeline.segmentNumber(segment),
+            segmentRemaining = timeline.segmentEnd(segment) - position,
+            isRunning = true
+        )
+    }
+}
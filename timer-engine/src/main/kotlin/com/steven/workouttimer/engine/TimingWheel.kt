@@ -0,0 +1,171 @@
+package com.steven.workouttimer.engine
+
+/**
+ * Hashed timing wheel for the engine's deferred work.
+ *
+ * Timers hash into `slotCount` buckets of `slotMs` each by deadline; scheduling and
+ * cancelling unlink a node from its bucket in O(1). [advance] fires every timer due
+ * within one slot of the current time in a single pass, so events that fall in the
+ * same few milliseconds share one wakeup. Deadlines further out than one revolution
+ * simply stay in their bucket until a later pass reaches them.
+ *
+ * Not thread-safe; owned by the engine thread.
+ */
+class TimingWheel(
+    private val slotMs: Long = 10L,
+    private val slotCount: Int = 256
+) {
+    /** What a [Timer] runs, given the monotonic time of the pass that fired it. */
+    fun interface Action {
+        // Not a (Long) -> Unit, which would box the time on every call
+        fun fire(nowMs: Long)
+    }
+
+    /** A reusable scheduled callback, so rescheduling never allocates. */
+    class Timer(internal val action: Action) {
+        var deadlineMs = 0L
+            internal set
+        internal var bucket = IDLE
+        internal var prev: Timer? = null
+        internal var next: Timer? = null
+        internal var nextFiring: Timer? = null
+
+        val isPending: Boolean
+            get() = bucket >= 0
+    }
+
+    private val buckets = arrayOfNulls<Timer>(slotCount)
+    // Everything due at or before this has been fired; starts at the epoch of the
+    // monotonic clock so the first pass scans the whole wheel
+    private var horizonMs = 0L
+    private var earliestMs = Long.MAX_VALUE
+    private var earliestStale = false
+
+    var pendingCount = 0
+        private set
+
+    /** Timers fired since construction. */
+    var firedCount = 0L
+        private set
+
+    /** Passes that fired at least one timer. */
+    var firingPassCount = 0L
+        private set
+
+    fun schedule(timer: Timer, deadlineMs: Long) {
+        if (timer.isPending) unlink(timer)
+        timer.deadlineMs = deadlineMs
+        // Deadlines already behind the horizon go in the bucket the next pass scans first
+        val bucket = bucketOf(maxOf(deadlineMs, horizonMs))
+        timer.bucket = bucket
+        timer.prev = null
+        timer.next = buckets[bucket]
+        buckets[bucket]?.prev = timer
+        buckets[bucket] = timer
+        pendingCount++
+        if (deadlineMs < earliestMs) earliestMs = deadlineMs
+    }
+
+    fun cancel(timer: Timer) {
+        if (timer.bucket == FIRING) {
+            timer.bucket = IDLE
+            return
+        }
+        if (!timer.isPending) return
+        unlink(timer)
+    }
+
+    /**
+     * Earliest pending deadline, or [Long.MAX_VALUE] when nothing is scheduled.
+     *
+     * Kept as timers are scheduled; only once the earliest one fires or is cancelled
+     * does this look again, walking the buckets in deadline order from the horizon and
+     * stopping at the first slot that holds the minimum. That costs the distance in
+     * slots to the next deadline, about 100 for a session ticking every second, and at
+     * most one revolution when nothing is due within it.
+     */
+    fun nextDeadlineMs(): Long {
+        if (pendingCount == 0) return Long.MAX_VALUE
+        if (earliestStale) {
+            var earliest = Long.MAX_VALUE
+            // Every pending timer sits at or after the horizon's slot, and only the
+            // overdue ones, all in that first bucket, have deadlines before their slot
+            val firstSlot = Math.floorDiv(horizonMs, slotMs)
+            for (step in 0 until slotCount) {
+                var timer = buckets[bucketOf((firstSlot + step) * slotMs)]
+                while (timer != null) {
+                    if (timer.deadlineMs < earliest) earliest = timer.deadlineMs
+                    timer = timer.next
+                }
+                if (earliest < (firstSlot + step + 1) * slotMs) break
+            }
+            earliestMs = earliest
+            earliestStale = false
+        }
+        return earliestMs
+    }
+
+    /**
+     * Fires every timer due at or before `nowMs + slotMs`.
+     *
+     * @return the number of timers fired
+     */
+    fun advance(nowMs: Long): Int {
+        val newHorizonMs = nowMs + slotMs
+        val fromSlot = horizonMs / slotMs
+        val toSlot = newHorizonMs / slotMs
+        horizonMs = newHorizonMs
+
+        // Detach everything due first so actions can freely reschedule or cancel
+        var firing: Timer? = null
+        val scans = minOf(toSlot - fromSlot + 1, slotCount.toLong()).toInt()
+        for (step in 0 until scans) {
+            val bucket = bucketOf((fromSlot + step) * slotMs)
+            var timer = buckets[bucket]
+            while (timer != null) {
+                val next = timer.next
+                if (timer.deadlineMs <= newHorizonMs) {
+                    unlink(timer)
+                    timer.bucket = FIRING
+                    timer.nextFiring = firing
+                    firing = timer
+                }
+                timer = next
+            }
+        }
+
+        var fired = 0
+        while (firing != null) {
+            val timer: Timer = firing
+            firing = timer.nextFiring
+            timer.nextFiring = null
+            // Skipped if an earlier action in this pass cancelled or rescheduled it
+            if (timer.bucket != FIRING) continue
+            timer.bucket = IDLE
+            fired++
+            timer.action.fire(nowMs)
+        }
+        firedCount += fired
+        if (fired > 0) firingPassCount++
+        return fired
+    }
+
+    private fun unlink(timer: Timer) {
+        val prev = timer.prev
+        val next = timer.next
+        if (prev == null) buckets[timer.bucket] = next else prev.next = next
+        next?.prev = prev
+        timer.prev = null
+        timer.next = null
+        timer.bucket = IDLE
+        pendingCount--
+        if (timer.deadlineMs <= earliestMs) earliestStale = true
+    }
+
+    private fun bucketOf(timeMs: Long): Int = Math.floorMod(Math.floorDiv(timeMs, slotMs), slotCount.toLong()).toInt()
+
+    companion object {
+        private const val IDLE = -1
+        private const val FIRING = -2
+    }
+}
@@ -0,0 +1,156 @@
+package com.steven.workouttimer.engine
+
+/**
+ * A workout as data: the [steps] of one round, repeated [rounds] times. Every
+ * [TimerMode] is a preset that produces one of these, and [CueTimeline.compile] turns
+ * any plan into segments and cues, so a new interval protocol needs a preset rather
+ * than another branch in the engine, the displays or the notification.
+ *
+ * [limitSeconds] cuts the workout off part-way through its last round; it is only set
+ * when a running session's length has been adjusted, and 0 means no limit.
+ *
+ * Plans are stored as short strings, see [encode].
+ */
+data class WorkoutPlan(
+    val steps: List<Step>,
+    val rounds: Int,
+    val limitSeconds: Int = 0
+) {
+    /**
+     * One segment of a round: a [CueTimeline] segment kind, its length, and the
+     * `CUE_` flags saying which cues it gets.
+     */
+    data class Step(val kind: Int, val seconds: Int, val cues: Int = defaultCues(kind))
+
+    val roundSeconds: Int = steps.sumOf { it.seconds }
+
+    /** Length of the workout proper, after [limitSeconds]. */
+    val workoutSeconds: Int
+        get() = if (limitSeconds > 0) minOf(limitSeconds, roundSeconds * rounds) else roundSeconds * rounds
+
+    /** Whether a round has more than one phase worth naming on screen, e.g. hold and rest. */
+    val hasPhases: Boolean
+        get() = steps.size > 1
+
+    /**
+     * This plan cut or extended to [workoutSeconds], ending part-way through a round
+     * if it does not divide evenly.
+     */
+    fun withWorkoutSeconds(workoutSeconds: Int): WorkoutPlan {
+        val rounds = (workoutSeconds + roundSeconds - 1) / roundSeconds
+        return copy(
+            rounds = rounds,
+            limitSeconds = if (rounds * roundSeconds == workoutSeconds) 0 else workoutSeconds
+        )
+    }
+
+    /**
+     * Compact text form: each step as its kind letter, its seconds and its cue letters,
+     * comma separated, then `*rounds` and, if set, `~limitSeconds`. A climbing plan of
+     * six 7 s holds with 3 s rests is `H7b,R3ac*6`.
+     */
+    fun encode(): String = buildString {
+        steps.forEachIndexed { index, step ->
+            if (index > 0) append(',')
+            append(kindLetter(step.kind))
+            append(step.seconds)
+            if (step.cues and CUE_ANNOUNCE_ON_START != 0) append('a')
+            if (step.cues and CUE_BEEP_ON_START != 0) append('b')
+            if (step.cues and CUE_COUNTDOWN_TO_END != 0) append('c')
+        }
+        append('*').append(rounds)
+        if (limitSeconds > 0) append('~').append(limitSeconds)
+    }
+
+    companion object {
+        /** Double beep as the step starts, except at the very start of the workout. */
+        const val CUE_BEEP_ON_START = 1
+
+        /** Speaks the step's name as it starts. */
+        const val CUE_ANNOUNCE_ON_START = 2
+
+        /** Counts down the last seconds of the step. */
+        const val CUE_COUNTDOWN_TO_END = 4
+
+        const val MAX_STEPS = 16
+        const val MAX_STEP_SECONDS = 3600
+
+        /** Cues a step of [kind] gets unless it says otherwise. */
+        fun defaultCues(kind: Int): Int = when (kind) {
+            CueTimeline.SEGMENT_HOLD -> CUE_BEEP_ON_START
+            CueTimeline.SEGMENT_REST -> CUE_ANNOUNCE_ON_START or CUE_COUNTDOWN_TO_END
+            else -> CUE_BEEP_ON_START or CUE_COUNTDOWN_TO_END
+        }
+
+        /** A new exercise at the top of every minute for [totalMinutes] minutes. */
+        fun weightlift(totalMinutes: Int): WorkoutPlan = emom(60, totalMinutes)
+
+        /** [totalRepetitions] holds, each followed by a rest announced and counted down. */
+        fun climbing(holdSeconds: Int, restSeconds: Int, totalRepetitions: Int): WorkoutPlan =
+            intervals(CueTimeline.SEGMENT_HOLD, holdSeconds, restSeconds, totalRepetitions)
+
+        /** Work and rest intervals; the classic protocol is 8 rounds of 20 s on, 10 s off. */
+        fun tabata(workSeconds: Int = 20, restSeconds: Int = 10, rounds: Int = 8): WorkoutPlan =
+            intervals(CueTimeline.SEGMENT_WORK, workSeconds, restSeconds, rounds)
+
+        /** A new round every [intervalSeconds], for [rounds] rounds. */
+        fun emom(intervalSeconds: Int, rounds: Int): WorkoutPlan =
+            WorkoutPlan(listOf(Step(CueTimeline.SEGMENT_WORK, intervalSeconds)), rounds)
+
+        private fun intervals(workKind: Int, workSeconds: Int, restSeconds: Int, rounds: Int): WorkoutPlan {
+            val steps = ArrayList<Step>(2)
+            steps.add(Step(workKind, workSeconds))
+            if (restSeconds > 0) {
+                steps.add(Step(CueTimeline.SEGMENT_REST, restSeconds))
+            }
+            return WorkoutPlan(steps, rounds)
+        }
+
+        /**
+         * Parses [encode]'s format, or returns null if [text] is not a valid plan.
+         */
+        fun decode(text: String): WorkoutPlan? {
+            val roundsAt = text.lastIndexOf('*')
+            if (roundsAt <= 0) return null
+            val limitAt = text.indexOf('~', roundsAt)
+            val rounds = text.substring(roundsAt + 1, if (limitAt < 0) text.length else limitAt)
+                .toIntOrNull() ?: return null
+            val limitSeconds = if (limitAt < 0) 0 else text.substring(limitAt + 1).toIntOrNull() ?: return null
+
+            val steps = ArrayList<Step>()
+            for (part in text.substring(0, roundsAt).split(',')) {
+                if (part.isEmpty()) return null
+                val kind = kindOf(part[0]) ?: return null
+                var end = 1
+                while (end < part.length && part[end].isDigit()) end++
+                val seconds = part.substring(1, end).toIntOrNull() ?: return null
+                if (seconds <= 0 || seconds > MAX_STEP_SECONDS) return null
+                var cues = 0
+                for (flag in part.substring(end)) {
+                    cues = cues or when (flag) {
+                        'a' -> CUE_ANNOUNCE_ON_START
+                        'b' -> CUE_BEEP_ON_START
+                        'c' -> CUE_COUNTDOWN_TO_END
+                        else -> return null
+                    }
+                }
+                steps.add(Step(kind, seconds, cues))
+            }
+            if (steps.isEmpty() || steps.size > MAX_STEPS || rounds < 1 || limitSeconds < 0) return null
+            return WorkoutPlan(steps, rounds, limitSeconds)
+        }
+
+        private fun kindLetter(kind: Int): Char = when (kind) {
+            CueTimeline.SEGMENT_HOLD -> 'H'
+            CueTimeline.SEGMENT_REST -> 'R'
+            else -> 'W'
+        }
+
+        private fun kindOf(letter: Char): Int? = when (letter) {
+            'W' -> CueTimeline.SEGMENT_WORK
+            'H' -> CueTimeline.SEGMENT_HOLD
+            'R' -> CueTimeline.SEGMENT_REST
+            else -> null
+        }
+    }
+}
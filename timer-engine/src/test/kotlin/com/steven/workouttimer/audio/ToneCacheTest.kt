@@ -0,0 +1,74 @@
+package com.steven.workouttimer.audio
+
+import java.util.Random
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class ToneCacheTest {
+
+    @Test
+    fun rendersOnceAndReplaysTheSameSamples() {
+        val cache = ToneCache(sampleRate = SAMPLE_RATE)
+        val first = cache.get(880.0, 100, 0.5)
+
+        assertArrayEquals(ToneSynth.sine(880.0, 100, 0.5, SAMPLE_RATE), first)
+        assertSame(first, cache.get(880.0, 100, 0.5))
+        // Differences far below hearing share a tone
+        assertSame(first, cache.get(880.001, 100, 0.5001))
+        assertNotSame(first, cache.get(880.0, 101, 0.5))
+        assertEquals(2L, cache.hits)
+        assertEquals(2L, cache.misses)
+        assertEquals(2, cache.toneCount)
+    }
+
+    @Test
+    fun evictsTheLeastRecentlyUsedTone() {
+        // Room for exactly two 100 ms tones
+        val cache = ToneCache(maxBytes = 2L * TONE_BYTES, sampleRate = SAMPLE_RATE)
+        val a = cache.get(440.0, 100, 0.5)
+        cache.get(550.0, 100, 0.5)
+        cache.get(440.0, 100, 0.5)
+        cache.get(660.0, 100, 0.5)
+
+        assertEquals(1L, cache.evictions)
+        assertEquals(2L * TONE_BYTES, cache.sizeBytes)
+        assertSame(a, cache.get(440.0, 100, 0.5))
+        val misses = cache.misses
+        cache.get(550.0, 100, 0.5)
+        assertEquals("evicted tone rendered again", misses + 1, cache.misses)
+    }
+
+    @Test
+    fun keepsAToneLargerThanTheWholeCache() {
+        val cache = ToneCache(maxBytes = TONE_BYTES / 2L, sampleRate = SAMPLE_RATE)
+        cache.get(440.0, 100, 0.5)
+        val b = cache.get(550.0, 100, 0.5)
+
+        assertEquals(1, cache.toneCount)
+        assertSame(b, cache.get(550.0, 100, 0.5))
+    }
+
+    @Test
+    fun staysWithinItsBound() {
+        val maxBytes = 10L * TONE_BYTES
+        val cache = ToneCache(maxBytes = maxBytes, sampleRate = SAMPLE_RATE)
+        val random = Random(21)
+        repeat(5_000) {
+            val durationMs = 20 + random.nextInt(200)
+            cache.get(200.0 + random.nextInt(30) * 50, durationMs, 0.5)
+            assertTrue(cache.summary(), cache.sizeBytes <= maxBytes || cache.toneCount == 1)
+        }
+        cache.clear()
+        assertEquals(0L, cache.sizeBytes)
+        assertEquals(0, cache.toneCount)
+    }
+
+    companion object {
+        private const val SAMPLE_RATE = 8_000
+        private const val TONE_BYTES = SAMPLE_RATE / 10 * Short.SIZE_BYTES
+    }
+}
@@ -0,0 +1,173 @@
+package com.steven.workouttimer.audio
+
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+class ToneMixerTest {
+
+    private val mixer = ToneMixer(maxVoices = 3, sampleRate = SAMPLE_RATE)
+
+    @Test
+    fun silentWithNothingPlaying() {
+        val out = ShortArray(BLOCK) { 7 }
+        assertEquals(0, mixer.mix(out, 0, BLOCK))
+        assertArrayEquals(ShortArray(BLOCK), out)
+    }
+
+    @Test
+    fun sumsOverlappingTonesAcrossBlocks() {
+        mixer.play(ShortArray(6) { 100 })
+        mixer.play(ShortArray(3) { -30 })
+        val out = ShortArray(8)
+
+        assertEquals(1, mixer.mix(out, 0, 4))
+        assertEquals(0, mixer.mix(out, 4, 4))
+        assertArrayEquals(shortArrayOf(70, 70, 70, 100, 100, 100, 0, 0), out)
+    }
+
+    @Test
+    fun clipsToSixteenBits() {
+        mixer.play(shortArrayOf(30_000, -30_000, 1_000))
+        mixer.play(shortArrayOf(30_000, -30_000, -3_000))
+        val out = ShortArray(3)
+        mixer.mix(out, 0, 3)
+
+        assertArrayEquals(shortArrayOf(Short.MAX_VALUE, Short.MIN_VALUE, -2_000), out)
+    }
+
+    @Test
+    fun dropsTonesBeyondItsVoices() {
+        repeat(5) { mixer.play(ShortArray(BLOCK * 2) { 1 }) }
+        val out = ShortArray(BLOCK)
+
+        assertEquals(3, mixer.mix(out, 0, BLOCK))
+        assertEquals(2L, mixer.droppedVoices)
+        assertEquals(3.toShort(), out[0])
+        // A voice frees up once its tone ends
+        assertEquals(0, mixer.mix(out, 0, BLOCK))
+        mixer.play(ShortArray(1) { 1 })
+        assertEquals(0, mixer.mix(out, 0, BLOCK))
+        assertEquals(2L, mixer.droppedVoices)
+    }
+
+    @Test
+    fun clearDropsEverything() {
+        mixer.play(ShortArray(BLOCK * 4) { 9 })
+        val out = ShortArray(BLOCK)
+        mixer.mix(out, 0, BLOCK)
+        mixer.play(ShortArray(BLOCK) { 9 })
+        mixer.clear()
+
+        assertEquals(0, mixer.mix(out, 0, BLOCK))
+        assertArrayEquals(ShortArray(BLOCK), out)
+    }
+
+    @Test
+    fun recordsOnsetLatencyOfPlayedTones() {
+        mixer.setOutputClock(0L, 0L)
+        mixer.play(ShortArray(1), queuedAtNanos = -25_000_000L)
+        mixer.mix(ShortArray(BLOCK), 0, BLOCK)
+
+        assertEquals(1L, mixer.onsetLatency.count)
+        assertEquals(25L, mixer.onsetLatency.maxMs)
+    }
+
+    @Test
+    fun scheduledToneStartsOnItsFrame() {
+        mixer.startStream(0L)
+        mixer.schedule(ShortArray(4) { 1 }, nanosOf(100), tag = 1L)
+
+        assertEquals(100, firstSound(mixFrames(BLOCK * 10)))
+        assertEquals(0L, mixer.lateVoices)
+    }
+
+    @Test
+    fun lateToneStartsRightAway() {
+        mixer.startStream(0L)
+        mixFrames(BLOCK * 4)
+        mixer.schedule(ShortArray(4) { 1 }, nanosOf(10), tag = 1L)
+
+        assertEquals(0, firstSound(mixFrames(BLOCK)))
+        assertEquals(1L, mixer.lateVoices)
+    }
+
+    @Test
+    fun cancelWithdrawsOnlyTonesNotStarted() {
+        mixer.startStream(0L)
+        mixer.schedule(ShortArray(BLOCK * 4) { 1 }, nanosOf(0), tag = 1L)
+        mixer.schedule(ShortArray(4) { 1 }, nanosOf(BLOCK * 2), tag = 2L)
+        mixFrames(BLOCK)
+        mixer.cancel(1L)
+        mixer.cancel(2L)
+
+        val out = mixFrames(BLOCK * 3)
+        assertEquals("started tone cut off", 1.toShort(), out[BLOCK * 3 - 1])
+        assertEquals("cancelled tone played", 0, out.count { it.toInt() == 2 })
+    }
+
+    @Test
+    fun toneRescheduledAfterACancelStillPlays() {
+        // A seek withdraws the cues ahead and schedules them again under the same tag
+        mixer.startStream(0L)
+        mixer.schedule(ShortArray(4) { 1 }, nanosOf(100), tag = 1L)
+        mixer.cancel(1L)
+        mixer.schedule(ShortArray(4) { 1 }, nanosOf(200), tag = 1L)
+
+        val out = mixFrames(BLOCK * 20)
+        assertEquals(200, firstSound(out))
+        assertEquals(4, out.count { it.toInt() == 1 })
+    }
+
+    @Test
+    fun scheduledToneLandsOnItsFrameInEveryStream() {
+        mixer.verifyTiming = true
+        var streamStartNanos = 0L
+        repeat(3) {
+            // Each stream is a new track whose frame position starts from 0
+            mixer.startStream(streamStartNanos)
+            mixer.setOutputClock(0L, streamStartNanos)
+            mixer.schedule(ShortArray(4) { 1 }, streamStartNanos + nanosOf(300), tag = 1L)
+
+            val out = mixFrames(BLOCK * 40)
+            assertEquals(300, firstSound(out))
+            mixer.setOutputClock(BLOCK * 40L, streamStartNanos + nanosOf(BLOCK * 40))
+            mixer.clear()
+            streamStartNanos += 5_000_000_000L
+        }
+
+        assertEquals(0L, mixer.lateVoices)
+        assertEquals("n=3 last=0 mean=0.0 max=0", mixer.timingSummary())
+    }
+
+    @Test
+    fun playingToneCarriesOnIntoANewStream() {
+        mixer.startStream(0L)
+        mixer.play(ShortArray(BLOCK * 2) { 1 })
+        mixFrames(BLOCK * 100)
+        mixer.play(ShortArray(BLOCK * 2) { 1 })
+        mixFrames(BLOCK)
+
+        mixer.startStream(1_000_000_000L)
+        val out = mixFrames(BLOCK * 2)
+        assertEquals(BLOCK, out.count { it.toInt() == 1 })
+        assertEquals(0, firstSound(out))
+    }
+
+    private fun mixFrames(frames: Int): ShortArray {
+        val out = ShortArray(frames)
+        for (offset in 0 until frames step BLOCK) {
+            mixer.mix(out, offset, BLOCK)
+        }
+        return out
+    }
+
+    private fun firstSound(out: ShortArray): Int = out.indexOfFirst { it.toInt() != 0 }
+
+    private fun nanosOf(frame: Int): Long = frame * 1_000_000_000L / SAMPLE_RATE
+
+    companion object {
+        private const val SAMPLE_RATE = 8_000
+        private const val BLOCK = 16
+    }
+}
@@ -0,0 +1,108 @@
+package com.steven.workouttimer.audio
+
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+
+class WavPcmTest {
+
+    @Test
+    fun readsMonoAtTheMixerRate() {
+        val samples = shortArrayOf(0, 1_000, -1_000, Short.MAX_VALUE, Short.MIN_VALUE)
+        assertArrayEquals(samples, WavPcm.decode(wav(samples, channels = 1, rate = RATE), RATE))
+    }
+
+    @Test
+    fun downMixesStereo() {
+        val interleaved = shortArrayOf(100, 300, -200, 200, 30_000, 30_000)
+        assertArrayEquals(
+            shortArrayOf(200, 0, 30_000),
+            WavPcm.decode(wav(interleaved, channels = 2, rate = RATE), RATE)
+        )
+    }
+
+    @Test
+    fun resamplesToTheMixerRate() {
+        val ramp = ShortArray(100) { (it * 100).toShort() }
+        val decoded = WavPcm.decode(wav(ramp, channels = 1, rate = RATE / 2), RATE)!!
+
+        assertEquals(200, decoded.size)
+        assertEquals(0.toShort(), decoded[0])
+        assertEquals(50.toShort(), decoded[1])
+        assertEquals(100.toShort(), decoded[2])
+        assertEquals(9_900.toShort(), decoded[199])
+        assertEquals(50, WavPcm.resample(ramp, RATE, RATE / 2).size)
+    }
+
+    @Test
+    fun skipsOtherChunksAndTheirPadding() {
+        val samples = shortArrayOf(1, 2, 3)
+        val list = ByteArray(8 + 5).also {
+            ByteBuffer.wrap(it).order(ByteOrder.LITTLE_ENDIAN).putInt(LIST).putInt(5)
+        }
+        // An odd-sized chunk is padded to an even length
+        assertArrayEquals(samples, WavPcm.decode(wav(samples, 1, RATE, extraChunk = list + ByteArray(1)), RATE))
+    }
+
+    @Test
+    fun readsToTheEndWhenTheDataSizeIsUnset() {
+        val samples = shortArrayOf(5, 6, 7, 8)
+        for (size in listOf(0, -1, 1_000_000)) {
+            assertArrayEquals(samples, WavPcm.decode(wav(samples, 1, RATE, dataSize = size), RATE))
+        }
+    }
+
+    @Test
+    fun rejectsWhatItCannotPlay() {
+        val samples = shortArrayOf(1, 2)
+        val good = wav(samples, 1, RATE)
+        assertNull(WavPcm.decode(ByteArray(0), RATE))
+        assertNull(WavPcm.decode(good.copyOf(11), RATE))
+        assertNull(WavPcm.decode(good.copyOf().also { it[0] = 'X'.code.toByte() }, RATE))
+        assertNull(WavPcm.decode(wav(samples, 1, RATE, format = 3), RATE))
+        assertNull(WavPcm.decode(wav(samples, 1, RATE, bits = 8), RATE))
+        assertNull(WavPcm.decode(wav(samples, 0, RATE), RATE))
+        // A chunk claiming to run past the end of the file
+        val broken = ByteArray(8).also {
+            ByteBuffer.wrap(it).order(ByteOrder.LITTLE_ENDIAN).putInt(LIST).putInt(Int.MAX_VALUE)
+        }
+        assertNull(WavPcm.decode(wav(samples, 1, RATE, extraChunk = broken), RATE))
+    }
+
+    /** A WAV file of [samples], with [extraChunk] between the format and the data. */
+    private fun wav(
+        samples: ShortArray,
+        channels: Int,
+        rate: Int,
+        format: Int = 1,
+        bits: Int = 16,
+        dataSize: Int = samples.size * 2,
+        extraChunk: ByteArray = ByteArray(0)
+    ): ByteArray {
+        val buffer = ByteBuffer.allocate(12 + 24 + extraChunk.size + 8 + samples.size * 2)
+            .order(ByteOrder.LITTLE_ENDIAN)
+        buffer.putInt(RIFF).putInt(buffer.capacity() - 8).putInt(WAVE)
+        buffer.putInt(FMT).putInt(16)
+        buffer.putShort(format.toShort()).putShort(channels.toShort())
+        buffer.putInt(rate).putInt(rate * channels * bits / 8)
+        buffer.putShort((channels * bits / 8).toShort()).putShort(bits.toShort())
+        buffer.put(extraChunk)
+        buffer.putInt(DATA).putInt(dataSize)
+        for (sample in samples) buffer.putShort(sample)
+        return buffer.array()
+    }
+
+    companion object {
+        private const val RATE = 44_100
+
+        // Chunk ids as little-endian ints
+        private const val RIFF = 0x46464952
+        private const val WAVE = 0x45564157
+        private const val FMT = 0x20746d66
+        private const val LIST = 0x5453494c
+        private const val DATA = 0x61746164
+    }
+}
@@ -0,0 +1,42 @@
+package com.steven.workouttimer.engine
+
+import java.util.Random
+import org.junit.Test
+
+class CueTimelineTest {
+
+    @Test
+    fun recompiledTailMatchesFullCompile() {
+        repeat(CONFIGS) { config ->
+            val random = Random(config.toLong())
+            val session = RandomPlans.session(random, 1L)
+            val plan = session.plan
+            val adjusted = if (random.nextBoolean()) {
+                plan.withWorkoutSeconds(1 + random.nextInt(plan.workoutSeconds * 3))
+            } else {
+                plan.copy(rounds = 1 + random.nextInt(plan.rounds * 3), limitSeconds = 0)
+            }
+            val full = compile(session, adjusted)
+            // Any tick both timelines still have, as the engine never retimes past the end
+            val fromTick = random.nextInt(minOf(session.timeline.totalTicks, full.totalTicks))
+
+            assertSameTimeline(
+                "config $config: ${plan.encode()} to ${adjusted.encode()} from tick $fromTick",
+                full,
+                CueTimeline.recompileTail(session, fromTick, adjusted)
+            )
+        }
+    }
+
+    private fun compile(session: TimerSession, plan: WorkoutPlan): CueTimeline = CueTimeline.compile(
+        plan = plan,
+        audioEnabled = session.audioEnabled,
+        countdownSeconds = session.countdownSeconds,
+        initialCountdownSeconds = session.initialCountdownSeconds,
+        completionMessage = session.timerMode.completionMessage
+    )
+
+    companion object {
+        private const val CONFIGS = 2_000
+    }
+}
@@ -0,0 +1,145 @@
+package com.steven.workouttimer.engine
+
+import java.util.Random
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+/**
+ * Plays generated sessions through [FastForward] under random pauses and skips, and
+ * checks every cue that fired against the compiled [CueTimeline]: the right cues, in
+ * order, each at the virtual time its tick falls due.
+ */
+class FastForwardTest {
+
+    @Test
+    fun cuesFollowTheTimelineUnderRandomPausesAndSkips() {
+        repeat(CONFIGS) { config ->
+            val random = Random(config.toLong())
+            val run = FastForward(startMs = 1_000L + random.nextInt(100_000))
+            val session = RandomPlans.session(random, TIMER_ID)
+            run.start(session)
+            val model = Model(session.timeline, run.nowMs)
+
+            repeat(random.nextInt(MAX_OPERATIONS + 1)) {
+                val atMs = run.nowMs + 1 + random.nextInt(session.timeline.totalTicks * 400)
+                run.advanceTo(atMs)
+                model.advanceTo(atMs)
+                val running = run.engine.find(TIMER_ID) ?: return@repeat
+                when (random.nextInt(5)) {
+                    0, 1 -> if (running.isTicking) {
+                        run.engine.pause(running)
+                        model.pause(atMs)
+                    } else {
+                        run.engine.resume(running)
+                        model.resume(atMs)
+                    }
+                    2 -> {
+                        run.engine.skipForward(running)
+                        model.skipForward(atMs)
+                    }
+                    3 -> {
+                        run.engine.skipBack(running)
+                        model.skipBack(atMs)
+                    }
+                }
+            }
+            if (run.resume(TIMER_ID)) model.resume(run.nowMs)
+            val result = run.runToCompletion()
+            model.advanceTo(Long.MAX_VALUE)
+
+            assertEquals("config $config, plan ${session.plan.encode()}", model.cues, result.cues)
+            assertEquals(listOf(TIMER_ID), run.completed)
+        }
+    }
+
+    @Test
+    fun lateWakeupsSkipMissedCuesWithoutReplaying() {
+        val run = FastForward()
+        val session = RandomPlans.session(Random(3), TIMER_ID)
+        run.start(session)
+        run.lateBy(2_500)
+        val result = run.runToCompletion()
+
+        val ticks = result.cues.map { it.position }
+        assertEquals(ticks.sorted(), ticks)
+        assertEquals(CueTimeline.CUE_COMPLETE, result.cues.last().kind)
+        assertEquals(listOf(TIMER_ID), run.completed)
+    }
+
+    /** What the engine should do, worked out from the timeline alone. */
+    private class Model(private val timeline: CueTimeline, startMs: Long) {
+        val cues = ArrayList<FastForward.CueEvent>()
+        private var anchorMs = startMs
+        private var frozenMs = 0L
+        private var paused = false
+        private var done = false
+        private var position = -1
+        private var nextTick = 0
+        private var cueCursor = 0
+        private var segment = 0
+
+        fun advanceTo(atMs: Long) {
+            while (!done && !paused && anchorMs + nextTick * 1000L <= atMs) {
+                val tickMs = anchorMs + nextTick * 1000L
+                if (nextTick >= timeline.totalTicks) {
+                    complete(tickMs)
+                    return
+                }
+                position = nextTick++
+                fireCues(tickMs, position)
+                while (timeline.segmentEnd(segment) <= position) segment++
+            }
+        }
+
+        fun pause(atMs: Long) {
+            frozenMs = atMs - anchorMs
+            paused = true
+        }
+
+        fun resume(atMs: Long) {
+            anchorMs = atMs - frozenMs
+            paused = false
+        }
+
+        fun skipForward(atMs: Long) = seek(atMs, segment + 1)
+
+        fun skipBack(atMs: Long) {
+            val intoSegment = position - timeline.segmentStart(segment)
+            seek(atMs, if (intoSegment > 1) segment else maxOf(segment - 1, 0))
+        }
+
+        private fun seek(atMs: Long, target: Int) {
+            val to = target.coerceIn(0, timeline.segmentCount)
+            cueCursor = timeline.segmentFirstCue(to)
+            if (to == timeline.segmentCount) {
+                complete(atMs)
+                return
+            }
+            val start = timeline.segmentStart(to)
+            if (paused) frozenMs = start * 1000L else anchorMs = atMs - start * 1000L
+            segment = to
+            position = start - 1
+            nextTick = start
+        }
+
+        private fun complete(atMs: Long) {
+            fireCues(atMs, timeline.totalTicks)
+            done = true
+        }
+
+        private fun fireCues(atMs: Long, upTo: Int) {
+            while (cueCursor < timeline.cueCount && timeline.cueTick(cueCursor) <= upTo) {
+                val cue = cueCursor++
+                cues.add(
+                    FastForward.CueEvent(TIMER_ID, atMs, position, timeline.cueKind(cue), timeline.cueValue(cue))
+                )
+            }
+        }
+    }
+
+    companion object {
+        private const val TIMER_ID = 7L
+        private const val CONFIGS = 500
+        private const val MAX_OPERATIONS = 12
+    }
+}
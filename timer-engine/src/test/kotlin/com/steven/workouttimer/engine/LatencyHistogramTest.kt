@@ -0,0 +1,83 @@
+package com.steven.workouttimer.engine
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class LatencyHistogramTest {
+
+    private val histogram = LatencyHistogram()
+
+    @Test
+    fun bucketsAreExactBelowThirtyTwoMilliseconds() {
+        for (value in 0L until 32L) {
+            assertEquals(value, LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(value)))
+        }
+    }
+
+    @Test
+    fun bucketEdgesMeetWithoutGapsOrOverlap() {
+        val last = LatencyHistogram.BUCKET_COUNT - 1
+        for (bucket in 0..last) {
+            val upper = LatencyHistogram.upperBoundOf(bucket)
+            assertEquals("upper bound of $bucket", bucket, LatencyHistogram.bucketOf(upper))
+            if (bucket < last) {
+                assertEquals("just above $bucket", bucket + 1, LatencyHistogram.bucketOf(upper + 1))
+            }
+        }
+        assertEquals(LatencyHistogram.MAX_VALUE_MS, LatencyHistogram.upperBoundOf(last))
+    }
+
+    @Test
+    fun bucketsAreWithinASixteenthOfTheValue() {
+        var value = 32L
+        while (value <= LatencyHistogram.MAX_VALUE_MS) {
+            val upper = LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(value))
+            assertTrue("$value reported as $upper", upper >= value && upper - value <= value / 16)
+            value += 1 + value / 64
+        }
+    }
+
+    @Test
+    fun percentilesOfAUniformSpread() {
+        for (value in 1L..100L) histogram.record(value)
+
+        // 50 and 51 share a bucket above 32 ms, as do 88 to 91 and 96 to 99
+        assertEquals(51L, histogram.percentileMs(50.0))
+        assertEquals(91L, histogram.percentileMs(90.0))
+        assertEquals(99L, histogram.percentileMs(99.0))
+        // Never above the largest value recorded
+        assertEquals(100L, histogram.percentileMs(100.0))
+        assertEquals("n=100 p50=51 p90=91 p99=99 max=100", histogram.summary())
+    }
+
+    @Test
+    fun percentilesOfALongTail() {
+        repeat(990) { histogram.record(2L) }
+        repeat(10) { histogram.record(500L) }
+
+        assertEquals(2L, histogram.percentileMs(50.0))
+        assertEquals(2L, histogram.percentileMs(99.0))
+        assertEquals(500L, histogram.percentileMs(99.5))
+        assertEquals(500L, histogram.maxMs)
+    }
+
+    @Test
+    fun clampsOutOfRangeValues() {
+        histogram.record(-5L)
+        histogram.record(Long.MAX_VALUE)
+
+        assertEquals(0L, histogram.percentileMs(50.0))
+        assertEquals(LatencyHistogram.MAX_VALUE_MS, histogram.maxMs)
+    }
+
+    @Test
+    fun emptyAndResetReportZero() {
+        assertEquals("n=0 p50=0 p90=0 p99=0 max=0", histogram.summary())
+        histogram.record(12L)
+        histogram.reset()
+
+        assertEquals(0L, histogram.count)
+        assertEquals("n=0 p50=0 p90=0 p99=0 max=0", histogram.summary())
+    }
+}
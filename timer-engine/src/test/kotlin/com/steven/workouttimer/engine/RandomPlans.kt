@@ -0,0 +1,42 @@
+package com.steven.workouttimer.engine
+
+import java.util.Random
+
+/** Seeded plans for tests: every preset, and custom plans mixing steps, cues and limits. */
+object RandomPlans {
+
+    fun plan(random: Random): WorkoutPlan = when (random.nextInt(5)) {
+        0 -> WorkoutPlan.weightlift(1 + random.nextInt(5))
+        1 -> WorkoutPlan.climbing(1 + random.nextInt(10), random.nextInt(8), 1 + random.nextInt(6))
+        2 -> WorkoutPlan.tabata(1 + random.nextInt(25), random.nextInt(12), 1 + random.nextInt(8))
+        3 -> WorkoutPlan.emom(1 + random.nextInt(40), 1 + random.nextInt(6))
+        else -> custom(random)
+    }
+
+    fun custom(random: Random): WorkoutPlan {
+        val steps = List(1 + random.nextInt(4)) {
+            WorkoutPlan.Step(
+                kind = KINDS[random.nextInt(KINDS.size)],
+                seconds = 1 + random.nextInt(30),
+                cues = random.nextInt(8)
+            )
+        }
+        val plan = WorkoutPlan(steps, 1 + random.nextInt(6))
+        // Sometimes cut off part-way, as an adjusted session is
+        return if (random.nextInt(4) == 0) plan.withWorkoutSeconds(1 + random.nextInt(plan.workoutSeconds)) else plan
+    }
+
+    fun session(random: Random, timerId: Long, plan: WorkoutPlan = plan(random)): TimerSession =
+        TimerEngine.compileSession(
+            timerId = timerId,
+            timerName = "Timer $timerId",
+            timerMode = TimerMode.CUSTOM,
+            plan = plan,
+            audioEnabled = random.nextInt(5) != 0,
+            audioType = AudioType.BEEP,
+            countdownSeconds = random.nextInt(6),
+            initialCountdownSeconds = random.nextInt(11)
+        )
+
+    private val KINDS = intArrayOf(CueTimeline.SEGMENT_WORK, CueTimeline.SEGMENT_HOLD, CueTimeline.SEGMENT_REST)
+}
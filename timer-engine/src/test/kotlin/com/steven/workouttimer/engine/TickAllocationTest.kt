@@ -0,0 +1,62 @@
+package com.steven.workouttimer.engine
+
+import java.lang.management.ManagementFactory
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+/**
+ * A steady session's ticks must not allocate: the engine thread runs one pass per
+ * second for as long as a workout lasts.
+ */
+class TickAllocationTest {
+
+    private var nowMs = 0L
+
+    private val engine = TimerEngine({ nowMs }, object : TimerEngine.Listener {
+        override fun onTick(running: ActiveSession) {}
+        override fun onCue(running: ActiveSession, kind: Int, value: Int) {}
+        override fun onComplete(running: ActiveSession) {}
+        override fun onPassComplete(segmentsChanged: Boolean, sessionsEnded: Boolean) {}
+    })
+
+    @Test
+    fun steadyTicksAllocateNothing() {
+        engine.start(
+            TimerEngine.compileSession(
+                1L, "Long", TimerMode.CLIMBING, WorkoutPlan.climbing(7, 3, 5_000),
+                audioEnabled = true, audioType = AudioType.BEEP,
+                countdownSeconds = 3, initialCountdownSeconds = 10
+            )
+        )
+        // Lets the JIT settle before measuring
+        runPasses(WARMUP_PASSES)
+
+        val threads = ManagementFactory.getThreadMXBean() as com.sun.management.ThreadMXBean
+        val threadId = Thread.currentThread().id
+        val baseline = threads.getThreadAllocatedBytes(threadId)
+        val calibration = threads.getThreadAllocatedBytes(threadId) - baseline
+        // A late compilation can allocate once inside a round; an allocating tick
+        // shows up in every round
+        var fewest = Long.MAX_VALUE
+        repeat(MEASURED_ROUNDS) {
+            val before = threads.getThreadAllocatedBytes(threadId)
+            runPasses(MEASURED_PASSES)
+            fewest = minOf(fewest, threads.getThreadAllocatedBytes(threadId) - before - calibration)
+        }
+
+        assertEquals("bytes allocated over $MEASURED_PASSES ticks", 0L, fewest)
+    }
+
+    private fun runPasses(count: Int) {
+        repeat(count) {
+            nowMs = engine.nextDeadlineMs()
+            engine.runPass(nowMs)
+        }
+    }
+
+    companion object {
+        private const val WARMUP_PASSES = 20_000
+        private const val MEASURED_PASSES = 2_000
+        private const val MEASURED_ROUNDS = 5
+    }
+}
@@ -0,0 +1,98 @@
+package com.steven.workouttimer.engine
+
+import java.util.Random
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class TickSchedulerTest {
+
+    private var nowMs = 5_000L
+
+    private val engine = TimerEngine({ nowMs }, object : TimerEngine.Listener {
+        override fun onTick(running: ActiveSession) {}
+        override fun onCue(running: ActiveSession, kind: Int, value: Int) {}
+        override fun onComplete(running: ActiveSession) {}
+        override fun onPassComplete(segmentsChanged: Boolean, sessionsEnded: Boolean) {}
+    })
+
+    @Test
+    fun jitteredWakeupsDoNotDriftFromTheAnchor() {
+        val random = Random(1)
+        val running = engine.start(
+            TimerEngine.compileSession(
+                1L, "Two hours", TimerMode.WEIGHTLIFT, WorkoutPlan.weightlift(120),
+                audioEnabled = false, audioType = AudioType.BEEP,
+                countdownSeconds = 0, initialCountdownSeconds = 0
+            )
+        )
+        // Every wakeup overshoots its deadline by up to MAX_JITTER_MS - 1; a clock that
+        // measured each second from the previous wakeup would fall behind by the sum
+        while (engine.hasPendingWork) {
+            nowMs = engine.nextDeadlineMs() + random.nextInt(MAX_JITTER_MS)
+            engine.runPass(nowMs)
+        }
+
+        val stats = running.clock.stats
+        assertEquals(7_200L, stats.tickCount)
+        assertTrue("last tick ${stats.lastLatenessMs} ms late", stats.lastLatenessMs < MAX_JITTER_MS)
+        assertTrue("a tick ran ${stats.maxLatenessMs} ms late", stats.maxLatenessMs < MAX_JITTER_MS)
+    }
+
+    @Test
+    fun pauseMidSecondKeepsTheExactMillisecond() {
+        val scheduler = TickScheduler({ nowMs })
+        scheduler.start()
+        nowMs += 3_437
+        scheduler.pause()
+        assertEquals(3_437L, scheduler.elapsedMs())
+
+        // However long the pause, elapsed time stays frozen
+        nowMs += 61_234
+        assertEquals(3_437L, scheduler.elapsedMs())
+        assertEquals(3, scheduler.dueTick())
+
+        scheduler.resume()
+        assertEquals(3_437L, scheduler.elapsedMs())
+        // The rest of the second is owed, no more and no less
+        assertEquals(nowMs + 563, scheduler.realtimeOf(4))
+        nowMs += 563
+        assertEquals(4_000L, scheduler.elapsedMs())
+        assertEquals(4, scheduler.dueTick())
+    }
+
+    @Test
+    fun pausedTickCarriesTheMillisecondsIntoItsSecond() {
+        val running = engine.start(
+            TimerEngine.compileSession(
+                1L, "Tabata", TimerMode.TABATA, WorkoutPlan.tabata(),
+                audioEnabled = false, audioType = AudioType.BEEP,
+                countdownSeconds = 0, initialCountdownSeconds = 0
+            )
+        )
+        runUntil(nowMs + 3_437)
+        engine.pause(running)
+
+        assertEquals(437, running.tick.pausedMsInSecond)
+        assertEquals(3_437L, running.session.elapsedMs(running.tick))
+
+        nowMs += 61_234
+        engine.resume(running)
+        assertEquals(nowMs + 563, engine.nextDeadlineMs())
+        runUntil(nowMs + 563)
+        assertEquals(4_000L, running.session.elapsedMs(running.tick))
+    }
+
+    /** Fires every deadline up to [targetMs] exactly on time, then leaves the clock there. */
+    private fun runUntil(targetMs: Long) {
+        while (engine.nextDeadlineMs() <= targetMs) {
+            nowMs = engine.nextDeadlineMs()
+            engine.runPass(nowMs)
+        }
+        nowMs = targetMs
+    }
+
+    companion object {
+        private const val MAX_JITTER_MS = 5
+    }
+}
@@ -0,0 +1,26 @@
+package com.steven.workouttimer.engine
+
+import org.junit.Assert.assertEquals
+
+/** Asserts [actual] has the same length, segments and cues as [expected]. */
+fun assertSameTimeline(message: String, expected: CueTimeline, actual: CueTimeline) {
+    assertEquals(message, describe(expected), describe(actual))
+}
+
+private fun describe(timeline: CueTimeline): String = buildString {
+    append("ticks=").append(timeline.totalTicks)
+    append(" prepare=").append(timeline.prepareTicks)
+    append(" countdown=").append(timeline.maxCountdownSeconds)
+    append(" complete=").append(timeline.completionMessage)
+    for (segment in 0 until timeline.segmentCount) {
+        append("\nsegment ").append(timeline.segmentStart(segment)).append('-').append(timeline.segmentEnd(segment))
+        append(" kind=").append(timeline.segmentKind(segment))
+        append(" number=").append(timeline.segmentNumber(segment))
+        append(" firstCue=").append(timeline.segmentFirstCue(segment))
+    }
+    for (cue in 0 until timeline.cueCount) {
+        append("\ncue ").append(timeline.cueTick(cue))
+        append(" kind=").append(timeline.cueKind(cue))
+        append(" value=").append(timeline.cueValue(cue))
+    }
+}
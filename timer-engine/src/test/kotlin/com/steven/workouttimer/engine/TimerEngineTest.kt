@@ -0,0 +1,102 @@
+package com.steven.workouttimer.engine
+
+import java.util.Random
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class TimerEngineTest {
+
+    @Test
+    fun adjustTimeRetimesTheRestOfTheSession() {
+        repeat(CONFIGS) { config ->
+            val random = Random(config.toLong())
+            adjustPartWay(random, config) { engine, running ->
+                val plan = running.session.plan
+                val elapsed = running.position + 1 - running.timeline.prepareTicks
+                val delta = random.nextInt(plan.workoutSeconds * 4) - plan.workoutSeconds * 2
+                val changed = engine.adjustTime(running, delta)
+
+                val target = plan.workoutSeconds + delta
+                val seconds = running.session.plan.workoutSeconds
+                assertEquals(seconds != plan.workoutSeconds, changed)
+                assertTrue("cut into elapsed time", seconds >= maxOf(elapsed, 1))
+                if (target >= maxOf(elapsed, 1) && target <= TimerEngine.MAX_WORKOUT_SECONDS) {
+                    assertEquals(target, seconds)
+                }
+            }
+        }
+    }
+
+    @Test
+    fun adjustRoundsKeepsTheRoundInProgress() {
+        repeat(CONFIGS) { config ->
+            val random = Random(config.toLong())
+            adjustPartWay(random, config) { engine, running ->
+                val plan = running.session.plan
+                val currentRound = (running.position - running.timeline.prepareTicks).coerceAtLeast(0) / plan.roundSeconds
+                val delta = random.nextInt(plan.rounds * 4 + 1) - plan.rounds * 2
+                engine.adjustRounds(running, delta)
+
+                val adjusted = running.session.plan
+                assertTrue("dropped the round in progress", adjusted.rounds > currentRound)
+                if (plan.rounds + delta in currentRound + 1..TimerEngine.MAX_ROUNDS) {
+                    assertEquals(plan.rounds + delta, adjusted.rounds)
+                    assertEquals(0, adjusted.limitSeconds)
+                }
+            }
+        }
+    }
+
+    @Test
+    fun adjustingByNothingChangesNothing() {
+        val run = FastForward()
+        val running = run.start(RandomPlans.session(Random(3), 1L, WorkoutPlan.tabata()))
+        run.advanceBy(45_000)
+
+        assertFalse(run.engine.adjustTime(running, 0))
+        assertFalse(run.engine.adjustRounds(running, 0))
+    }
+
+    /**
+     * Runs a generated session part-way, lets [adjust] change it, then checks that the
+     * session now follows a full compile of its new plan: the same timeline, the same
+     * tick, and every remaining cue on time through to completion.
+     */
+    private fun adjustPartWay(random: Random, config: Int, adjust: (TimerEngine, ActiveSession) -> Unit) {
+        val run = FastForward()
+        val session = RandomPlans.session(random, TIMER_ID)
+        val running = run.start(session)
+        run.advanceBy(random.nextInt(session.timeline.totalTicks * 1000).toLong())
+        val cuesBefore = run.result().cues.size
+
+        adjust(run.engine, running)
+
+        val adjusted = running.session
+        val full = TimerEngine.compileSession(
+            adjusted.timerId, adjusted.timerName, adjusted.timerMode, adjusted.plan, adjusted.audioEnabled,
+            adjusted.audioType, adjusted.countdownSeconds, adjusted.initialCountdownSeconds
+        ).timeline
+        val message = "config $config: ${session.plan.encode()} to ${adjusted.plan.encode()} at ${running.position}"
+        assertSameTimeline(message, full, running.timeline)
+        val position = running.position.coerceAtLeast(0)
+        assertEquals(message, TimerTick.at(full, full.segmentAt(position), position), running.tick)
+
+        val nextTick = running.nextTick
+        val anchorMs = running.clock.anchorMs
+        val fired = run.runToCompletion().cues.drop(cuesBefore)
+        val expected = (full.firstCueAtOrAfter(nextTick) until full.cueCount).map { cue ->
+            val tick = full.cueTick(cue)
+            FastForward.CueEvent(
+                TIMER_ID, anchorMs + tick * 1000L, minOf(tick, full.totalTicks - 1), full.cueKind(cue), full.cueValue(cue)
+            )
+        }
+        assertEquals(message, expected, fired)
+    }
+
+    companion object {
+        private const val TIMER_ID = 3L
+        private const val CONFIGS = 500
+    }
+}
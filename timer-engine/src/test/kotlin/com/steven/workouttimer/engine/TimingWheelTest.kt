@@ -0,0 +1,63 @@
+package com.steven.workouttimer.engine
+
+import java.util.Random
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class TimingWheelTest {
+
+    private val wheel = TimingWheel(SLOT_MS, SLOT_COUNT)
+
+    @Test
+    fun nextDeadlineMatchesEarliestPendingTimer() {
+        val random = Random(11)
+        val pending = HashSet<TimingWheel.Timer>()
+        var nowMs = 1_000_000L
+        val timers = List(TIMER_COUNT) { _ ->
+            lateinit var timer: TimingWheel.Timer
+            timer = TimingWheel.Timer { firedAtMs ->
+                assertTrue("fired early", timer.deadlineMs <= firedAtMs + SLOT_MS)
+                assertTrue(pending.remove(timer))
+            }
+            timer
+        }
+
+        repeat(OPERATIONS) {
+            val timer = timers[random.nextInt(timers.size)]
+            when (random.nextInt(4)) {
+                0, 1 -> {
+                    // Mostly within a revolution, sometimes overdue or well beyond it
+                    val offset = when (random.nextInt(10)) {
+                        0 -> -random.nextInt(50).toLong()
+                        1 -> random.nextInt(SLOT_COUNT * SLOT_MS.toInt() * 3).toLong()
+                        else -> random.nextInt(1_500).toLong()
+                    }
+                    wheel.schedule(timer, nowMs + offset)
+                    pending.add(timer)
+                }
+                2 -> {
+                    wheel.cancel(timer)
+                    pending.remove(timer)
+                }
+                else -> {
+                    nowMs += random.nextInt(if (random.nextInt(20) == 0) 5_000 else 300)
+                    wheel.advance(nowMs)
+                    for (left in pending) {
+                        assertTrue("left due timer", left.deadlineMs > nowMs + SLOT_MS)
+                    }
+                }
+            }
+            val expected = pending.minOfOrNull { it.deadlineMs } ?: Long.MAX_VALUE
+            assertEquals(expected, wheel.nextDeadlineMs())
+            assertEquals(pending.size, wheel.pendingCount)
+        }
+    }
+
+    companion object {
+        private const val SLOT_MS = 10L
+        private const val SLOT_COUNT = 32
+        private const val TIMER_COUNT = 40
+        private const val OPERATIONS = 50_000
+    }
+}
@@ -0,0 +1,37 @@
+package com.steven.workouttimer.engine
+
+import java.util.Random
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+
+class WorkoutPlanTest {
+
+    @Test
+    fun decodeReadsBackWhatEncodeWrote() {
+        val random = Random(20)
+        repeat(2_000) {
+            val plan = RandomPlans.plan(random)
+            assertEquals(plan, WorkoutPlan.decode(plan.encode()))
+        }
+    }
+
+    @Test
+    fun encodesTheDocumentedForm() {
+        assertEquals("H7b,R3ac*6", WorkoutPlan.climbing(7, 3, 6).encode())
+        assertEquals("W20bc,R10ac*8", WorkoutPlan.tabata().encode())
+        assertEquals("W60bc*10~545", WorkoutPlan.weightlift(10).withWorkoutSeconds(545).encode())
+    }
+
+    @Test
+    fun rejectsMalformedPlans() {
+        val tooManySteps = List(WorkoutPlan.MAX_STEPS + 1) { "W5" }.joinToString(",") + "*1"
+        val malformed = listOf(
+            "", "*3", "W60", "W60*", "W60*0", "W60*x", "X5*2", "W5q*2", "W5,*2", "W*2", "W5*2~-1",
+            "W0*2", "W60,R0*2", "W${WorkoutPlan.MAX_STEP_SECONDS + 1}*2", "W99999999999*2", tooManySteps
+        )
+        for (text in malformed) {
+            assertNull(text, WorkoutPlan.decode(text))
+        }
+    }
+}